@@ -0,0 +1,96 @@
+package com.example.screen.data.fetcher.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the streaming __NEXT_DATA__ reader with the previous full-tree
+ * parse on a synthetic company-facts payload. Not a unit test; compiled only
+ * with the benchmark profile and run manually:
+ *
+ * <pre>
+ * mvn -q -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.screen.data.fetcher.service.NextDataParserBenchmark
+ * </pre>
+ */
+public class NextDataParserBenchmark {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String json = samplePayload();
+        System.out.printf("Payload: %,d chars%n", json.length());
+
+        for (int i = 0; i < WARMUP; i++) {
+            treeParse(mapper, json, "dividends");
+            NextDataParser.readTabsData(mapper, json, "dividends");
+        }
+
+        report("Map tree (previous)", () -> treeParse(mapper, json, "dividends"));
+        report("Streaming", () -> NextDataParser.readTabsData(mapper, json, "dividends").size());
+    }
+
+    private interface Parse {
+        int run() throws Exception;
+    }
+
+    private static void report(String name, Parse parse) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            rows += parse.run();
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        System.out.printf("%-20s %8.1f us/page %,12d bytes/page (%d rows)%n", name,
+                nanos / 1_000.0 / ITERATIONS, bytes / ITERATIONS, rows / ITERATIONS);
+    }
+
+    // Mirrors the Map-based navigation MoneyControlService used before
+    @SuppressWarnings("unchecked")
+    private static int treeParse(ObjectMapper mapper, String json, String actionType) throws Exception {
+        Map<String, Object> nextData = mapper.readValue(json, Map.class);
+        Map<String, Object> props = (Map<String, Object>) nextData.get("props");
+        Map<String, Object> pageProps = (Map<String, Object>) props.get("pageProps");
+        Map<String, Object> data = (Map<String, Object>) pageProps.get("data");
+        Map<String, Object> tabsData = (Map<String, Object>) data.get("tabsData");
+        List<Map<String, Object>> actions = (List<Map<String, Object>>) tabsData.get(actionType);
+        return actions.size();
+    }
+
+    // Roughly the shape of a real page: large header/navigation blocks, then four tabs
+    private static String samplePayload() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"props\":{\"pageProps\":{\"meta\":{");
+        for (int i = 0; i < 300; i++) {
+            sb.append(i > 0 ? "," : "").append("\"nav").append(i)
+                    .append("\":{\"title\":\"Menu entry ").append(i)
+                    .append("\",\"url\":\"https://www.moneycontrol.com/section/").append(i).append("\"}");
+        }
+        sb.append("},\"data\":{\"tabsData\":{");
+        String[] tabs = { "bonus", "splits", "rights", "dividends" };
+        for (int t = 0; t < tabs.length; t++) {
+            sb.append(t > 0 ? "," : "").append('"').append(tabs[t]).append("\":[");
+            for (int i = 0; i < 40; i++) {
+                sb.append(i > 0 ? "," : "")
+                        .append("{\"announce_date\":\"").append(1 + i % 28).append(" Apr, 2024\",")
+                        .append("\"effective_date\":\"").append(1 + i % 28).append(" May, 2024\",")
+                        .append("\"dividend_type\":\"Interim\",\"dividend_per\":").append(100 + i)
+                        .append(",\"dividend_amount\":").append(1.5 * i)
+                        .append(",\"remarks\":\"Rs.").append(i).append(".00 per share\"}");
+            }
+            sb.append(']');
+        }
+        sb.append("}}}},\"page\":\"/company-facts\"}");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.screen.data.fetcher.service;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the streaming RSS reader with the previous Jsoup DOM parse on a
+ * synthetic Google News feed, both keeping the first 5 items. Not a unit test;
+ * compiled only with the benchmark profile and run manually:
+ *
+ * <pre>
+ * mvn -q -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.screen.data.fetcher.service.RssParserBenchmark
+ * </pre>
+ */
+public class RssParserBenchmark {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+    private static final int LIMIT = 5;
+
+    public static void main(String[] args) throws Exception {
+        byte[] feed = sampleFeed().getBytes(StandardCharsets.UTF_8);
+        System.out.printf("Feed: %,d bytes%n", feed.length);
+
+        for (int i = 0; i < WARMUP; i++) {
+            jsoupParse(feed);
+            RssParser.readItems(new ByteArrayInputStream(feed), LIMIT);
+        }
+
+        report("Jsoup DOM (previous)", feed, () -> jsoupParse(feed));
+        report("StAX streaming", feed, () -> {
+            CountingInputStream in = new CountingInputStream(feed);
+            int items = RssParser.readItems(in, LIMIT).size();
+            bytesRead += in.count;
+            return items;
+        });
+    }
+
+    private interface Parse {
+        int run() throws Exception;
+    }
+
+    private static long bytesRead;
+
+    private static void report(String name, byte[] feed, Parse parse) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        bytesRead = 0;
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int items = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            items += parse.run();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        long read = bytesRead > 0 ? bytesRead / ITERATIONS : feed.length;
+        System.out.printf("%-22s %8.1f us/feed %,12d bytes allocated %,9d bytes read (%d items)%n", name,
+                nanos / 1_000.0 / ITERATIONS, allocated / ITERATIONS, read, items / ITERATIONS);
+    }
+
+    // Mirrors what NewsService did before: whole document into a DOM, then the first 5 items
+    private static int jsoupParse(byte[] feed) {
+        Document doc = Jsoup.parse(new String(feed, StandardCharsets.UTF_8));
+        int count = 0;
+        for (Element item : doc.select("item")) {
+            if (count >= LIMIT)
+                break;
+            Map<String, String> newsItem = new HashMap<>();
+            newsItem.put("title", item.select("title").text());
+            newsItem.put("link", item.select("link").text());
+            newsItem.put("pubDate", item.select("pubDate").text());
+            newsItem.put("source", item.select("source").text());
+            count++;
+        }
+        return count;
+    }
+
+    // Google News returns up to 100 items per search
+    private static String sampleFeed() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>")
+                .append("<rss version=\"2.0\" xmlns:media=\"http://search.yahoo.com/mrss/\"><channel>")
+                .append("<generator>NFE/5.0</generator><title>\"TCS business\" - Google News</title>")
+                .append("<link>https://news.google.com/search?q=TCS</link><language>en-IN</language>")
+                .append("<description>Google News</description>");
+        for (int i = 0; i < 100; i++) {
+            sb.append("<item><title>TCS wins large deal number ").append(i).append(" - Economic Times</title>")
+                    .append("<link>https://news.google.com/rss/articles/CBMi").append(i)
+                    .append("AXyzAbcDefGhiJklMnoPqrStuVwx?oc=5</link>")
+                    .append("<guid isPermaLink=\"false\">CBMi").append(i).append("AXyz</guid>")
+                    .append("<pubDate>Mon, ").append(10 + i % 18).append(" Mar 2025 08:")
+                    .append(10 + i % 50).append(":00 GMT</pubDate>")
+                    .append("<description>&lt;a href=\"https://news.google.com/rss/articles/CBMi").append(i)
+                    .append("\" target=\"_blank\"&gt;TCS wins large deal number ").append(i)
+                    .append("&lt;/a&gt;&amp;nbsp;&amp;nbsp;&lt;font color=\"#6f6f6f\"&gt;Economic Times&lt;/font&gt;")
+                    .append("</description>")
+                    .append("<source url=\"https://economictimes.indiatimes.com\">Economic Times</source></item>");
+        }
+        sb.append("</channel></rss>");
+        return sb.toString();
+    }
+
+    private static final class CountingInputStream extends ByteArrayInputStream {
+        long count;
+
+        CountingInputStream(byte[] buf) {
+            super(buf);
+        }
+
+        @Override
+        public synchronized int read() {
+            int b = super.read();
+            if (b >= 0)
+                count++;
+            return b;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            int n = super.read(b, off, len);
+            if (n > 0)
+                count += n;
+            return n;
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.example.screen.data.fetcher.controller;
 
+import com.example.screen.data.fetcher.dto.CalendarEntry;
+import com.example.screen.data.fetcher.dto.MarketActionPage;
+import com.example.screen.data.fetcher.dto.Quote;
+import com.example.screen.data.fetcher.dto.SummaryJob;
+import com.example.screen.data.fetcher.service.CancellationToken;
 import com.example.screen.data.fetcher.service.FivePaisaService;
 import com.example.screen.data.fetcher.service.NewsAnalysisService;
 import com.example.screen.data.fetcher.service.ScreenerAnalysisService;
 import com.example.screen.data.fetcher.service.ScreenerDataFetcherService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.io.IOException;
 import java.util.List;
@@ -26,6 +33,10 @@ public class ScreenerDataFetcherController {
     @Autowired
     private com.example.screen.data.fetcher.service.NewsAnalysisService newsAnalysisService;
 
+    // Upper bound for long-running async endpoints (scraping + LLM)
+    @Value("${async.request-timeout-ms:180000}")
+    private long asyncRequestTimeoutMs;
+
     @GetMapping(value = "/ticker/{ticker}")
     public ResponseEntity<String> fetchDataForTicker(
             @PathVariable(value = "ticker", required = true) String ticker) throws IOException {
@@ -86,6 +97,7 @@ public class ScreenerDataFetcherController {
             @RequestParam(value = "ticker") String ticker,
             @RequestParam(value = "refresh", defaultValue = "false") boolean refresh) {
         log.info("Geo analysis request received for ticker: {}, refresh: {}", ticker, refresh);
+        newsIngestionService.track(ticker);
         java.util.Map<String, Object> data = screenerAnalysisService.getGeoAnalysis(ticker, refresh);
         return new ResponseEntity<>(data, HttpStatus.OK);
     }
@@ -118,13 +130,102 @@ public class ScreenerDataFetcherController {
         return new ResponseEntity<>(data, HttpStatus.OK);
     }
 
+    @Autowired
+    private com.example.screen.data.fetcher.service.MarketActionService marketActionService;
+
+    @GetMapping(value = "/market-actions/query")
+    public ResponseEntity<MarketActionPage> queryMarketActions(
+            @RequestParam(value = "year", required = false) Integer year,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "company", required = false) String company,
+            @RequestParam(value = "sort", defaultValue = "exDate") String sort,
+            @RequestParam(value = "direction", defaultValue = "desc") String direction,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        log.info("Market actions query: year={}, type={}, from={}, to={}, company={}, sort={} {}", year, type, from,
+                to, company, sort, direction);
+        try {
+            java.time.LocalDate fromDate = from != null ? java.time.LocalDate.parse(from) : null;
+            java.time.LocalDate toDate = to != null ? java.time.LocalDate.parse(to) : null;
+            MarketActionPage page = marketActionService.query(year, type, fromDate, toDate, company, sort,
+                    !"asc".equalsIgnoreCase(direction), limit, cursor);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (java.time.format.DateTimeParseException | IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Autowired
+    private com.example.screen.data.fetcher.service.CalendarIndexService calendarIndexService;
+
+    @GetMapping(value = "/calendar")
+    public ResponseEntity<List<CalendarEntry>> getCalendar(
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "type", required = false) String type) {
+        try {
+            java.time.LocalDate fromDate = from != null ? java.time.LocalDate.parse(from) : null;
+            java.time.LocalDate toDate = to != null ? java.time.LocalDate.parse(to) : null;
+            return new ResponseEntity<>(calendarIndexService.find(fromDate, toDate, type), HttpStatus.OK);
+        } catch (java.time.format.DateTimeParseException | IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Autowired
+    private com.example.screen.data.fetcher.service.NewsIngestionService newsIngestionService;
+
+    @Autowired
+    private com.example.screen.data.fetcher.service.NewsSearchIndexService newsSearchIndexService;
+
+    /**
+     * Search stored headlines and sources, newest first. Never goes to the network.
+     *
+     * @param q       Words that must all appear, e.g. "order win"
+     * @param tickers Comma-separated tickers whose news to search; all news when empty
+     */
+    @GetMapping(value = "/news/search")
+    public ResponseEntity<List<java.util.Map<String, String>>> searchNews(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "tickers", required = false) List<String> tickers,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        int max = limit == null ? com.example.screen.data.fetcher.service.NewsSearchIndexService.DEFAULT_LIMIT
+                : Math.max(1, Math.min(limit, com.example.screen.data.fetcher.service.NewsSearchIndexService.MAX_LIMIT));
+        List<java.util.Map<String, String>> items = newsSearchIndexService.search(q, tickers, max).stream()
+                .map(com.example.screen.data.fetcher.service.NewsArticleService::toNewsItem)
+                .toList();
+        return new ResponseEntity<>(items, HttpStatus.OK);
+    }
+
     @GetMapping(value = "/news-analysis")
-    public ResponseEntity<java.util.Map<String, Object>> getNewsAnalysis(
+    public WebAsyncTask<ResponseEntity<java.util.Map<String, Object>>> getNewsAnalysis(
             @RequestParam(value = "ticker") String ticker,
             @RequestParam(value = "refresh", defaultValue = "false") boolean refresh) {
         log.info("News analysis request received for ticker: {}, refresh: {}", ticker, refresh);
-        java.util.Map<String, Object> data = newsAnalysisService.analyzeStockNews(ticker, refresh);
-        return new ResponseEntity<>(data, HttpStatus.OK);
+        newsIngestionService.track(ticker);
+        CancellationToken token = new CancellationToken();
+        WebAsyncTask<ResponseEntity<java.util.Map<String, Object>>> task = new WebAsyncTask<>(asyncRequestTimeoutMs,
+                () -> {
+                    java.util.Map<String, Object> data = newsAnalysisService.analyzeStockNews(ticker, refresh, token);
+                    return new ResponseEntity<>(data, HttpStatus.OK);
+                });
+        // Abandon pending LLM calls and skip the stages not started yet; Google News
+        // fetches already running finish (and cache). Only the timeout is guaranteed
+        // to fire: servlet containers report a client disconnect (onError) only if
+        // they notice the broken connection, often not until the response is written.
+        task.onTimeout(() -> {
+            log.warn("News analysis for {} timed out, cancelling", ticker);
+            token.cancel();
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        });
+        task.onError(() -> {
+            log.info("Client disconnected from news analysis for {}, cancelling", ticker);
+            token.cancel();
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        });
+        return task;
     }
 
     @Autowired
@@ -138,13 +239,61 @@ public class ScreenerDataFetcherController {
         return new ResponseEntity<>(moneyControlService.getBrokerResearch(ticker, refresh), HttpStatus.OK);
     }
 
+    @Autowired
+    private com.example.screen.data.fetcher.service.QuoteService quoteService;
+
+    // Each ticker is one upstream call on a miss, so a request may only name so many
+    @Value("${quotes.max-tickers:100}")
+    private int maxQuoteTickers;
+
+    @GetMapping(value = "/quotes")
+    public ResponseEntity<Map<String, Quote>> getQuotes(@RequestParam(value = "tickers") String tickers) {
+        log.info("Quotes request received for tickers: {}", tickers);
+        java.util.Set<String> tickerSet = new java.util.LinkedHashSet<>();
+        for (String ticker : tickers.split(",")) {
+            if (!ticker.trim().isEmpty()) {
+                tickerSet.add(ticker.trim());
+            }
+        }
+        if (tickerSet.size() > maxQuoteTickers) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(quoteService.getQuotes(tickerSet), HttpStatus.OK);
+    }
+
+    @Autowired
+    private com.example.screen.data.fetcher.service.BrokerSummaryJobService brokerSummaryJobService;
+
+    /**
+     * Submit a summary job. Returns the stored summary directly when there is one
+     * (200), otherwise a job to poll (202).
+     */
     @PostMapping(value = "/broker-research/summary")
-    public ResponseEntity<Map<String, String>> getBrokerResearchSummary(@RequestBody Map<String, String> payload) {
+    public ResponseEntity<SummaryJob> getBrokerResearchSummary(@RequestBody Map<String, String> payload) {
         String ticker = payload.get("ticker");
         String link = payload.get("link");
         log.info("Generating summary for ticker: {}, link: {}", ticker, link);
-        String summary = moneyControlService.getBrokerReportSummary(ticker, link);
-        return new ResponseEntity<>(java.util.Collections.singletonMap("summary", summary), HttpStatus.OK);
+        SummaryJob job = brokerSummaryJobService.submit(ticker, link);
+        return new ResponseEntity<>(job, job.isFinished() ? HttpStatus.OK : HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping(value = "/broker-research/summary/{jobId}")
+    public ResponseEntity<SummaryJob> getBrokerResearchSummaryJob(@PathVariable(value = "jobId") String jobId) {
+        SummaryJob job = brokerSummaryJobService.getJob(jobId);
+        if (job == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(job, HttpStatus.OK);
+    }
+
+    @DeleteMapping(value = "/broker-research/summary/{jobId}")
+    public ResponseEntity<SummaryJob> cancelBrokerResearchSummaryJob(@PathVariable(value = "jobId") String jobId) {
+        log.info("Cancel request received for summary job: {}", jobId);
+        SummaryJob job = brokerSummaryJobService.cancel(jobId);
+        if (job == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(job, HttpStatus.OK);
     }
 
     @Autowired
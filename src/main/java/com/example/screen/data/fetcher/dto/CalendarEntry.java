@@ -0,0 +1,15 @@
+package com.example.screen.data.fetcher.dto;
+
+/**
+ * One corporate action on the calendar.
+ *
+ * @param date    Ex-date (split date for splits), ISO yyyy-MM-dd
+ * @param type    dividends, bonus, splits or rights
+ * @param company Company name (the ticker when only Moneycontrol knows the action)
+ * @param ticker  Ticker, when the action came from a per-ticker Moneycontrol fetch
+ * @param details Short summary, e.g. "150%", "1:1", "10 -> 2"
+ * @param source  5paisa or moneycontrol
+ */
+public record CalendarEntry(String date, String type, String company, String ticker, String details,
+        String source) {
+}
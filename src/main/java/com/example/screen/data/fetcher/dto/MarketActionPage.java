@@ -0,0 +1,18 @@
+package com.example.screen.data.fetcher.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of the market-wide corporate actions query. Rows use the same keys as
+ * /market-actions; pass nextCursor back to get the following page.
+ */
+@Data
+@AllArgsConstructor
+public class MarketActionPage {
+    private List<Map<String, String>> items;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,12 @@
+package com.example.screen.data.fetcher.dto;
+
+/**
+ * One Google News RSS item, as read by RssParser.
+ *
+ * @param title   Headline
+ * @param link    Article link (a news.google.com redirect)
+ * @param pubDate Publish time as sent, RFC 1123
+ * @param source  Publisher name
+ */
+public record NewsItem(String title, String link, String pubDate, String source) {
+}
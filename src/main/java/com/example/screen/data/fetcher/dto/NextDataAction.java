@@ -0,0 +1,27 @@
+package com.example.screen.data.fetcher.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One corporate-action row from a Moneycontrol company-facts page
+ * (__NEXT_DATA__ -> props.pageProps.data.tabsData[actionType]).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record NextDataAction(
+        @JsonProperty("disp_announce_date") String dispAnnounceDate,
+        @JsonProperty("announcement_date") String announcementDate,
+        @JsonProperty("announce_date") String announceDate,
+        @JsonProperty("effective_date") String effectiveDate,
+        @JsonProperty("dividend_type") String dividendType,
+        @JsonProperty("dividend_amount") String dividendAmount,
+        @JsonProperty("dividend_per") String dividendPer,
+        @JsonProperty("remarks") String remarks,
+        @JsonProperty("exbonus_date") String exbonusDate,
+        @JsonProperty("bonus_ratio") String bonusRatio,
+        @JsonProperty("ratio") String ratio,
+        @JsonProperty("exsplit_date") String exsplitDate,
+        @JsonProperty("old_fv") String oldFv,
+        @JsonProperty("new_fv") String newFv,
+        @JsonProperty("premium") String premium) {
+}
@@ -0,0 +1,14 @@
+package com.example.screen.data.fetcher.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Quote {
+    private String ticker;
+    private Double price; // null when Moneycontrol has no price for the ticker
+    private long fetchedAt; // epoch millis
+}
@@ -0,0 +1,28 @@
+package com.example.screen.data.fetcher.dto;
+
+import lombok.Data;
+
+/**
+ * Background broker-report summarization job, as returned by the summary
+ * submit and status endpoints.
+ */
+@Data
+public class SummaryJob {
+
+    public enum Status {
+        PENDING, RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    private String jobId; // null when the summary was served from the DB
+    private String ticker;
+    private String link;
+    private volatile Status status;
+    private volatile String summary;
+    private volatile String error;
+    private long submittedAt; // epoch millis
+    private volatile long completedAt;
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED || status == Status.CANCELLED;
+    }
+}
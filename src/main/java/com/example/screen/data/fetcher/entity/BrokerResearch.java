@@ -6,10 +6,15 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "broker_research")
+@Table(name = "broker_research", indexes = {
+        @Index(name = "idx_broker_research_ticker", columnList = "ticker"),
+        @Index(name = "idx_broker_research_link", columnList = "reportLink")
+})
 public class BrokerResearch {
+    // Sequence (not IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "broker_research_seq")
+    @SequenceGenerator(name = "broker_research_seq", sequenceName = "broker_research_seq", allocationSize = 50)
     private Long id;
 
     private String ticker;
@@ -0,0 +1,37 @@
+package com.example.screen.data.fetcher.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One per-ticker corporate action, scraped from Moneycontrol or taken from the
+ * market-wide 5paisa tables. Upcoming vs previous is not stored; it is decided from exDate when the rows are read.
+ */
+@Entity
+@Data
+@Table(name = "corporate_action", indexes = {
+        @Index(name = "idx_corporate_action_ticker_date", columnList = "ticker, exDate")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_corporate_action_row", columnNames = "rowHash"))
+public class CorporateAction {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "corporate_action_seq")
+    @SequenceGenerator(name = "corporate_action_seq", sequenceName = "corporate_action_seq", allocationSize = 50)
+    private Long id;
+
+    private String ticker;
+    private String actionType; // dividends, bonus, splits, rights
+    private String source; // moneycontrol or 5paisa
+
+    // Ex-date (split date for splits, announcement if neither is known)
+    private LocalDate exDate;
+
+    @Column(length = 2000)
+    private String fields; // Display row as JSON, in column order
+
+    @Column(length = 64)
+    private String rowHash; // SHA-256 of the action's key (ticker, type, ex-date, dividend type)
+
+    private LocalDateTime fetchedAt;
+}
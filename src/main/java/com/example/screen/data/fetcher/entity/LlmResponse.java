@@ -0,0 +1,27 @@
+package com.example.screen.data.fetcher.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * A cached LLM answer, keyed by a hash of the endpoint, model and normalized
+ * prompt, so an identical prompt is never sent twice while the entry is fresh.
+ */
+@Entity
+@Data
+@Table(name = "llm_response", indexes = @Index(name = "idx_llm_response_expires", columnList = "expiresAt"))
+public class LlmResponse {
+    @Id
+    @Column(length = 64)
+    private String id; // SHA-256 of endpoint, model and normalized prompt
+
+    private String method; // e.g. "related-entities", for metrics and cleanup
+
+    @Lob
+    @Column(columnDefinition = "CLOB")
+    private String response;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,43 @@
+package com.example.screen.data.fetcher.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a market-wide 5paisa corporate action table, with dates parsed so
+ * the query endpoint can filter, sort and page in the database.
+ */
+@Entity
+@Data
+@Table(name = "market_action", indexes = {
+        @Index(name = "idx_market_action_type_date", columnList = "dataset, actionType, exDate"),
+        @Index(name = "idx_market_action_company", columnList = "dataset, companyKey"),
+        @Index(name = "idx_market_action_record", columnList = "dataset, recordDate")
+})
+public class MarketAction {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "market_action_seq")
+    @SequenceGenerator(name = "market_action_seq", sequenceName = "market_action_seq", allocationSize = 50)
+    private Long id;
+
+    private String dataset; // Year of the 5paisa table, or "current" for the live listing
+    private String actionType; // dividends, bonus, splits, rights
+
+    private String company;
+    private String companyKey; // Normalized name, see FivePaisaService.companyKey
+
+    private LocalDate exDate; // Split date for splits
+    private LocalDate recordDate;
+    private LocalDate announcementDate;
+
+    private String dividendType;
+    private String percentage;
+    private String ratio;
+    private String premium;
+    private String oldFv;
+    private String newFv;
+
+    private LocalDateTime fetchedAt;
+}
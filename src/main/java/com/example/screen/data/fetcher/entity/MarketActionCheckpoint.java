@@ -0,0 +1,22 @@
+package com.example.screen.data.fetcher.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Marks a past-year 5paisa table as stored for good, so the backfill and the
+ * query endpoint never fetch it again (also across restarts).
+ */
+@Entity
+@Data
+public class MarketActionCheckpoint {
+    @Id
+    private String id; // "year|type", e.g. "2021|dividends"
+
+    private String dataset;
+    private String actionType;
+    private int rowCount;
+    private LocalDateTime completedAt;
+}
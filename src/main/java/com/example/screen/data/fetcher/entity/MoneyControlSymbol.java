@@ -0,0 +1,26 @@
+package com.example.screen.data.fetcher.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Resolved Moneycontrol identifiers for a ticker, so the autosuggest endpoint is
+ * hit once per ticker rather than on every request.
+ */
+@Entity
+@Data
+@Table(name = "moneycontrol_symbol")
+public class MoneyControlSymbol {
+    @Id
+    private String ticker;
+
+    private String slug; // e.g. tataconsultancyservices
+    private String mcId; // e.g. TCS (last URL segment)
+    private String scId; // sc_id used by the price and broker-research APIs
+    private String companyUrl;
+
+    private LocalDateTime resolvedAt;
+}
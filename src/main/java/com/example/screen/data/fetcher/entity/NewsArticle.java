@@ -0,0 +1,52 @@
+package com.example.screen.data.fetcher.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One news article, stored once however many queries returned it. Keyed by a
+ * hash of the normalized link; query results keep only these ids.
+ */
+@Entity
+@Data
+@Table(name = "news_article", indexes = @Index(name = "idx_news_article_published", columnList = "publishedAt"))
+public class NewsArticle implements Persistable<String> {
+    @Id
+    @Column(length = 64)
+    private String id; // SHA-256 of the normalized link
+
+    @Column(length = 1000)
+    private String title;
+
+    @Column(length = 1000)
+    private String link;
+
+    private String source;
+    private String pubDate; // As sent in the feed, RFC 1123
+    private long publishedAt; // pubDate parsed once, epoch millis; 0 if unparseable
+
+    private LocalDateTime firstSeenAt;
+
+    // Not a column. Rows built in code are new, so save() persists them (batched, and a duplicate id fails)
+    // instead of merging, which would read each row first and overwrite one stored concurrently
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean loaded;
+
+    @PostLoad
+    void markLoaded() {
+        loaded = true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !loaded;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.screen.data.fetcher.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Which news query returned an article, so stored headlines can be filtered by
+ * ticker (its own query, its geo regions and its related entities).
+ */
+@Entity
+@Data
+@Table(name = "news_article_query", indexes = @Index(name = "idx_news_article_query_query", columnList = "query"))
+public class NewsArticleQuery implements Persistable<String> {
+    @Id
+    @Column(length = 600)
+    private String id; // "articleId|query"
+
+    @Column(length = 64)
+    private String articleId;
+
+    @Column(length = 500)
+    private String query; // Lowercased, as NewsService received it
+
+    private LocalDateTime firstSeenAt;
+
+    // Not a column; inserted rather than merged, as for NewsArticle
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean loaded;
+
+    @PostLoad
+    void markLoaded() {
+        loaded = true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !loaded;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.screen.data.fetcher.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * LLM impact score of one news article for one ticker, kept so a refresh only
+ * sends headlines that were never scored. Articles the model left out as not
+ * relevant are stored too, with relevant=false.
+ */
+@Entity
+@Data
+@Table(name = "news_score", indexes = @Index(name = "idx_news_score_ticker", columnList = "ticker"))
+public class NewsScore implements Persistable<String> {
+    @Id
+    @Column(length = 100)
+    private String id; // "ticker|articleId"
+
+    private String ticker;
+
+    @Column(length = 64)
+    private String articleId;
+
+    private boolean relevant;
+    private int score;
+
+    @Column(length = 1000)
+    private String reason;
+
+    private LocalDateTime scoredAt;
+
+    // Not a column; inserted rather than merged, as for NewsArticle, so a score
+    // stored concurrently is rejected instead of overwritten
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean loaded;
+
+    @PostLoad
+    void markLoaded() {
+        loaded = true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !loaded;
+    }
+}
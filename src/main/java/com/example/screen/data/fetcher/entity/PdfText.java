@@ -0,0 +1,27 @@
+package com.example.screen.data.fetcher.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Text extracted from a report PDF, keyed by the SHA-256 of the PDF bytes so an
+ * identical report is only parsed once.
+ */
+@Entity
+@Data
+@Table(name = "pdf_text", indexes = @Index(name = "idx_pdf_text_source_url", columnList = "sourceUrl"))
+public class PdfText {
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(length = 1000)
+    private String sourceUrl; // First URL the content was downloaded from
+
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String text;
+
+    private LocalDateTime extractedAt;
+}
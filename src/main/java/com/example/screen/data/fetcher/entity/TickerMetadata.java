@@ -12,4 +12,8 @@ public class TickerMetadata {
     private String ticker;
 
     private LocalDateTime lastBrokerResearchFetch;
+
+    private LocalDateTime lastCorporateActionsFetch;
+
+    private LocalDateTime lastNewsRequest; // Keeps the ticker on the news ingestion watchlist
 }
@@ -13,7 +13,4 @@ public interface BrokerResearchRepository extends JpaRepository<BrokerResearch,
     // Use List because theoretically duplicate links could exist if scraped
     // multiple times, though improbable
     List<BrokerResearch> findByReportLink(String reportLink);
-
-    @org.springframework.transaction.annotation.Transactional
-    void deleteByTicker(String ticker);
 }
@@ -4,6 +4,9 @@ import com.example.screen.data.fetcher.entity.CacheData;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CacheDataRepository extends JpaRepository<CacheData, String> {
+    List<CacheData> findByKeyStartingWith(String prefix);
 }
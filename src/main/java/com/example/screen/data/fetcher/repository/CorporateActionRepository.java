@@ -0,0 +1,38 @@
+package com.example.screen.data.fetcher.repository;
+
+import com.example.screen.data.fetcher.entity.CorporateAction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CorporateActionRepository extends JpaRepository<CorporateAction, Long> {
+    List<CorporateAction> findByTickerAndExDateAfterOrderByExDateAsc(String ticker, LocalDate date);
+
+    @Query("select a from CorporateAction a where a.ticker = :ticker and (a.exDate is null or a.exDate <= :date) "
+            + "order by a.exDate desc nulls last")
+    List<CorporateAction> findPrevious(@Param("ticker") String ticker, @Param("date") LocalDate date);
+
+    List<CorporateAction> findByTicker(String ticker);
+
+    List<CorporateAction> findByExDateGreaterThanEqual(LocalDate date);
+
+    /**
+     * Apply one ticker's refresh in one transaction, so a failure never leaves
+     * rows deleted without their replacements.
+     */
+    @Transactional
+    default void replaceRows(List<CorporateAction> stale, List<CorporateAction> revised,
+            List<CorporateAction> fresh) {
+        deleteAll(stale);
+        // Hibernate would otherwise insert before deleting
+        flush();
+        saveAll(revised);
+        saveAll(fresh);
+    }
+}
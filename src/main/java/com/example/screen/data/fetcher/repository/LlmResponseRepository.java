@@ -0,0 +1,19 @@
+package com.example.screen.data.fetcher.repository;
+
+import com.example.screen.data.fetcher.entity.LlmResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface LlmResponseRepository extends JpaRepository<LlmResponse, String> {
+    @Transactional
+    @Modifying
+    @Query("delete from LlmResponse r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,38 @@
+package com.example.screen.data.fetcher.repository;
+
+import com.example.screen.data.fetcher.entity.MarketAction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MarketActionRepository extends JpaRepository<MarketAction, Long> {
+    List<MarketAction> findByDatasetIn(Collection<String> datasets);
+
+    Optional<MarketAction> findFirstByDatasetAndActionTypeOrderByFetchedAtDesc(String dataset, String actionType);
+
+    @Transactional
+    @Modifying
+    @Query("delete from MarketAction a where a.dataset = :dataset and a.actionType = :actionType")
+    int deleteTable(@Param("dataset") String dataset, @Param("actionType") String actionType);
+
+    /**
+     * Swap a table's rows for a fresh load in one transaction, so readers never
+     * see it empty or half written.
+     *
+     * @return Rows removed
+     */
+    @Transactional
+    default int replaceTable(String dataset, String actionType, List<MarketAction> rows) {
+        int removed = deleteTable(dataset, actionType);
+        saveAll(rows);
+        return removed;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.screen.data.fetcher.repository;
+
+import com.example.screen.data.fetcher.entity.MoneyControlSymbol;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MoneyControlSymbolRepository extends JpaRepository<MoneyControlSymbol, String> {
+}
@@ -0,0 +1,9 @@
+package com.example.screen.data.fetcher.repository;
+
+import com.example.screen.data.fetcher.entity.NewsArticleQuery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NewsArticleQueryRepository extends JpaRepository<NewsArticleQuery, String> {
+}
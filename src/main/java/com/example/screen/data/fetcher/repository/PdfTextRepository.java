@@ -0,0 +1,12 @@
+package com.example.screen.data.fetcher.repository;
+
+import com.example.screen.data.fetcher.entity.PdfText;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PdfTextRepository extends JpaRepository<PdfText, String> {
+    Optional<PdfText> findFirstBySourceUrl(String sourceUrl);
+}
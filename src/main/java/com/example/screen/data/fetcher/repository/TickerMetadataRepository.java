@@ -4,6 +4,10 @@ import com.example.screen.data.fetcher.entity.TickerMetadata;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface TickerMetadataRepository extends JpaRepository<TickerMetadata, String> {
+    List<TickerMetadata> findByLastNewsRequestAfter(LocalDateTime since);
 }
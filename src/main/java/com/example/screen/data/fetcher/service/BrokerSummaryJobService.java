@@ -0,0 +1,146 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.dto.SummaryJob;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs broker-report summarization (PDF download, text extraction, LLM call) in
+ * the background. Submitting returns at once with either the stored summary or
+ * a job id the client polls.
+ */
+@Service
+@Slf4j
+public class BrokerSummaryJobService {
+
+    private static final long FINISHED_JOB_RETENTION_MS = 60L * 60 * 1000; // 1 hour
+
+    @Autowired
+    private MoneyControlService moneyControlService;
+
+    @Value("${broker-research.summary.threads:2}")
+    private int summaryThreads;
+
+    private final Map<String, SummaryJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, CancellationToken> tokens = new ConcurrentHashMap<>();
+    // In-flight job per report link, so repeated clicks share one job
+    private final Map<String, String> jobIdByLink = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(summaryThreads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public SummaryJob submit(String ticker, String link) {
+        evictFinishedJobs();
+
+        if (link == null || link.isEmpty()) {
+            return finished(ticker, link, "No report link provided.");
+        }
+
+        String cached = moneyControlService.getCachedBrokerReportSummary(link);
+        if (cached != null) {
+            log.info("Returning cached summary for {}", ticker);
+            return finished(ticker, link, cached);
+        }
+
+        String jobId = jobIdByLink.computeIfAbsent(link, l -> start(ticker, l));
+        return jobs.get(jobId);
+    }
+
+    public SummaryJob getJob(String jobId) {
+        evictFinishedJobs();
+        return jobs.get(jobId);
+    }
+
+    /**
+     * @return The job, or null if unknown
+     */
+    public SummaryJob cancel(String jobId) {
+        CancellationToken token = tokens.get(jobId);
+        if (token != null) {
+            log.info("Cancelling summary job {}", jobId);
+            token.cancel();
+        }
+        return jobs.get(jobId);
+    }
+
+    private String start(String ticker, String link) {
+        SummaryJob job = new SummaryJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setTicker(ticker);
+        job.setLink(link);
+        job.setStatus(SummaryJob.Status.PENDING);
+        job.setSubmittedAt(System.currentTimeMillis());
+
+        CancellationToken token = new CancellationToken();
+        jobs.put(job.getJobId(), job);
+        tokens.put(job.getJobId(), token);
+        executor.submit(() -> run(job, token));
+        log.info("Submitted summary job {} for {}", job.getJobId(), ticker);
+        return job.getJobId();
+    }
+
+    private void run(SummaryJob job, CancellationToken token) {
+        try {
+            token.throwIfCancelled();
+            job.setStatus(SummaryJob.Status.RUNNING);
+            String summary = moneyControlService.getBrokerReportSummary(job.getTicker(), job.getLink(), token);
+            if (summary == null || MoneyControlService.isSummaryError(summary)) {
+                log.warn("Summary job {} failed: {}", job.getJobId(), summary);
+                job.setError(summary);
+                job.setStatus(SummaryJob.Status.FAILED);
+            } else {
+                job.setSummary(summary);
+                job.setStatus(SummaryJob.Status.DONE);
+            }
+        } catch (CancellationException e) {
+            job.setStatus(SummaryJob.Status.CANCELLED);
+        } catch (Exception e) {
+            log.error("Summary job {} failed", job.getJobId(), e);
+            job.setError(e.getMessage());
+            job.setStatus(SummaryJob.Status.FAILED);
+        } finally {
+            job.setCompletedAt(System.currentTimeMillis());
+            tokens.remove(job.getJobId());
+            jobIdByLink.remove(job.getLink(), job.getJobId());
+        }
+    }
+
+    private SummaryJob finished(String ticker, String link, String summary) {
+        SummaryJob job = new SummaryJob();
+        job.setTicker(ticker);
+        job.setLink(link);
+        job.setSummary(summary);
+        job.setStatus(SummaryJob.Status.DONE);
+        job.setSubmittedAt(System.currentTimeMillis());
+        job.setCompletedAt(job.getSubmittedAt());
+        return job;
+    }
+
+    // Also swept on a schedule, so finished jobs don't linger when nothing is submitted or polled
+    @Scheduled(fixedDelay = 10 * 60 * 1000)
+    void evictFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - FINISHED_JOB_RETENTION_MS;
+        jobs.values().removeIf(job -> job.isFinished() && job.getCompletedAt() < cutoff);
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.dto.CalendarEntry;
+import com.example.screen.data.fetcher.entity.CorporateAction;
+import com.example.screen.data.fetcher.entity.MarketAction;
+import com.example.screen.data.fetcher.repository.CorporateActionRepository;
+import com.example.screen.data.fetcher.repository.MarketActionRepository;
+import com.example.screen.data.fetcher.repository.MoneyControlSymbolRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory calendar of corporate actions, bucketed by ex-date, answering
+ * "what goes ex in the next N days" without touching the DB. It is filled from
+ * the stored tables at startup and then updated per source: a reloaded 5paisa
+ * table or a refreshed ticker replaces only that source's entries and rebuilds
+ * only the dates they touch.
+ */
+@Service
+@Slf4j
+public class CalendarIndexService {
+
+    private static final long MAX_RANGE_DAYS = 366;
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private static final String SOURCE_PREFIX_MARKET = "5paisa|";
+    private static final String SOURCE_PREFIX_TICKER = "ticker|";
+
+    @Autowired
+    private MarketActionRepository marketActionRepository;
+
+    @Autowired
+    private CorporateActionRepository corporateActionRepository;
+
+    @Autowired
+    private MoneyControlSymbolRepository symbolRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // purpose tells apart actions of one company on one date, e.g. an interim and a special dividend
+    private record Indexed(LocalDate date, String companyKey, String purpose, CalendarEntry entry) {
+
+        String dedupeKey() {
+            return companyKey + "|" + purpose;
+        }
+    }
+
+    // Writers only (guarded by this): entries per source, and per date per source
+    private final Map<String, List<Indexed>> bySource = new HashMap<>();
+    private final Map<LocalDate, Map<String, List<Indexed>>> rawByDate = new HashMap<>();
+
+    // Date -> type -> deduped entries. Values are immutable and swapped whole, so reads need no lock
+    private final ConcurrentSkipListMap<LocalDate, Map<String, List<CalendarEntry>>> buckets = new ConcurrentSkipListMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStored() {
+        int year = LocalDate.now().getYear();
+        Map<String, List<MarketAction>> tables = new HashMap<>();
+        for (MarketAction action : marketActionRepository.findByDatasetIn(
+                List.of("current", String.valueOf(year), String.valueOf(year + 1)))) {
+            tables.computeIfAbsent(action.getDataset() + "|" + action.getActionType(), k -> new ArrayList<>())
+                    .add(action);
+        }
+        tables.forEach((key, rows) -> replaceSource(SOURCE_PREFIX_MARKET + key, fromMarketTable(rows)));
+
+        Map<String, List<CorporateAction>> tickers = new HashMap<>();
+        for (CorporateAction action : corporateActionRepository.findByExDateGreaterThanEqual(indexedFrom())) {
+            tickers.computeIfAbsent(action.getTicker(), k -> new ArrayList<>()).add(action);
+        }
+        tickers.forEach((ticker, actions) -> replaceSource(SOURCE_PREFIX_TICKER + ticker, fromTicker(ticker, actions)));
+
+        log.info("Calendar index loaded: {} market tables, {} tickers, {} dates", tables.size(), tickers.size(),
+                buckets.size());
+    }
+
+    /**
+     * @param from First ex-date, inclusive (defaults to today)
+     * @param to   Last ex-date, inclusive (defaults to {@value #DEFAULT_RANGE_DAYS} days after from)
+     * @param type Action type, or null for all
+     * @return Entries ordered by date, then type, then company
+     */
+    public List<CalendarEntry> find(LocalDate from, LocalDate to, String type) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(DEFAULT_RANGE_DAYS);
+        if (end.isBefore(start) || start.plusDays(MAX_RANGE_DAYS).isBefore(end)) {
+            throw new IllegalArgumentException("Range must be 0-" + MAX_RANGE_DAYS + " days");
+        }
+
+        List<CalendarEntry> result = new ArrayList<>();
+        for (Map<String, List<CalendarEntry>> bucket : buckets.subMap(start, true, end, true).values()) {
+            if (type != null) {
+                result.addAll(bucket.getOrDefault(type, List.of()));
+            } else {
+                for (String actionType : CorporateActionService.ACTION_TYPES) {
+                    result.addAll(bucket.getOrDefault(actionType, List.of()));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replace the entries of one 5paisa table after it was stored. Past-year
+     * tables are ignored; they carry no upcoming dates.
+     */
+    public void replaceMarketTable(String dataset, String type, List<MarketAction> rows) {
+        if (FivePaisaService.isClosedYear("current".equals(dataset) ? null : dataset)) {
+            return;
+        }
+        replaceSource(SOURCE_PREFIX_MARKET + dataset + "|" + type, fromMarketTable(rows));
+    }
+
+    /**
+     * Replace the entries of one ticker after its stored actions changed.
+     */
+    public void updateTicker(String ticker) {
+        List<CorporateAction> actions = new ArrayList<>();
+        for (CorporateAction action : corporateActionRepository.findByTicker(ticker)) {
+            if (action.getExDate() != null && !action.getExDate().isBefore(indexedFrom())) {
+                actions.add(action);
+            }
+        }
+        replaceSource(SOURCE_PREFIX_TICKER + ticker, fromTicker(ticker, actions));
+    }
+
+    // Older dates are not a calendar question; /market-actions/query covers them
+    private LocalDate indexedFrom() {
+        return LocalDate.now().withDayOfYear(1);
+    }
+
+    private List<Indexed> fromMarketTable(List<MarketAction> rows) {
+        List<Indexed> entries = new ArrayList<>();
+        for (MarketAction row : rows) {
+            if (row.getExDate() == null || row.getExDate().isBefore(indexedFrom())) {
+                continue;
+            }
+            String details;
+            switch (row.getActionType()) {
+                case "dividends":
+                    details = join(suffixed(row.getPercentage(), "%"), row.getDividendType());
+                    break;
+                case "splits":
+                    details = join(suffixed(row.getOldFv(), " ->"), row.getNewFv());
+                    break;
+                case "rights":
+                    details = join(row.getRatio(), prefixed("premium ", row.getPremium()));
+                    break;
+                default:
+                    details = row.getRatio();
+            }
+            entries.add(new Indexed(row.getExDate(), row.getCompanyKey(), purpose(row.getActionType(),
+                    row.getDividendType()), new CalendarEntry(row.getExDate().toString(),
+                    row.getActionType(), row.getCompany(), null, details, "5paisa")));
+        }
+        return entries;
+    }
+
+    private List<Indexed> fromTicker(String ticker, List<CorporateAction> actions) {
+        // Same key as the 5paisa company, so an action both sources know shows once
+        String companyKey = symbolRepository.findById(ticker)
+                .map(symbol -> FivePaisaService.companyKey(symbol.getSlug()))
+                .orElse("ticker:" + ticker);
+
+        List<Indexed> entries = new ArrayList<>();
+        for (CorporateAction action : actions) {
+            Map<String, String> fields;
+            try {
+                fields = objectMapper.readValue(action.getFields(), new TypeReference<LinkedHashMap<String, String>>() {
+                });
+            } catch (Exception e) {
+                continue;
+            }
+            String details;
+            switch (action.getActionType()) {
+                case "dividends":
+                    String amount = fields.get("Dividend(Rs)");
+                    details = amount != null && !amount.isEmpty() ? "Rs " + amount
+                            : join(suffixed(fields.get("Dividend %"), "%"), fields.get("Type"));
+                    break;
+                case "splits":
+                    details = join(suffixed(fields.get("Old FV"), " ->"), fields.get("New FV"));
+                    break;
+                case "rights":
+                    details = join(fields.get("Ratio"), prefixed("premium ", fields.get("Premium")));
+                    break;
+                default:
+                    details = fields.get("Ratio");
+            }
+            entries.add(new Indexed(action.getExDate(), companyKey, purpose(action.getActionType(),
+                    fields.get("Type")), new CalendarEntry(action.getExDate().toString(),
+                    action.getActionType(), ticker, ticker, details, "moneycontrol")));
+        }
+        return entries;
+    }
+
+    private synchronized void replaceSource(String source, List<Indexed> entries) {
+        Set<LocalDate> touched = new HashSet<>();
+
+        List<Indexed> previous = bySource.remove(source);
+        if (previous != null) {
+            for (Indexed old : previous) {
+                Map<String, List<Indexed>> sources = rawByDate.get(old.date());
+                if (sources != null && sources.remove(source) != null && sources.isEmpty()) {
+                    rawByDate.remove(old.date());
+                }
+                touched.add(old.date());
+            }
+        }
+
+        if (!entries.isEmpty()) {
+            bySource.put(source, entries);
+            for (Indexed entry : entries) {
+                // TreeMap orders 5paisa sources before tickers, so their company names win the dedupe
+                rawByDate.computeIfAbsent(entry.date(), d -> new TreeMap<>())
+                        .computeIfAbsent(source, s -> new ArrayList<>()).add(entry);
+                touched.add(entry.date());
+            }
+        }
+
+        for (LocalDate date : touched) {
+            rebuild(date);
+        }
+    }
+
+    private void rebuild(LocalDate date) {
+        Map<String, List<Indexed>> sources = rawByDate.get(date);
+        if (sources == null) {
+            buckets.remove(date);
+            return;
+        }
+
+        Map<String, Map<String, CalendarEntry>> byType = new HashMap<>();
+        for (List<Indexed> entries : sources.values()) {
+            for (Indexed indexed : entries) {
+                CalendarEntry entry = indexed.entry();
+                Map<String, CalendarEntry> seen = byType.computeIfAbsent(entry.type(), t -> new TreeMap<>());
+                CalendarEntry existing = seen.get(indexed.dedupeKey());
+                if (existing == null) {
+                    seen.put(indexed.dedupeKey(), entry);
+                } else if (existing.ticker() == null && entry.ticker() != null) {
+                    // Keep the 5paisa row but tag it with the ticker we know it by
+                    seen.put(indexed.dedupeKey(), new CalendarEntry(existing.date(), existing.type(),
+                            existing.company(), entry.ticker(), existing.details(), existing.source()));
+                }
+            }
+        }
+
+        Map<String, List<CalendarEntry>> bucket = new HashMap<>();
+        byType.forEach((type, entries) -> bucket.put(type, List.copyOf(entries.values())));
+        buckets.put(date, Map.copyOf(bucket));
+    }
+
+    // Both sources name the dividend type the same way (Final, Interim, Special)
+    private String purpose(String type, String dividendType) {
+        if (!"dividends".equals(type) || dividendType == null) {
+            return "";
+        }
+        return dividendType.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private String suffixed(String value, String suffix) {
+        return value == null || value.isEmpty() ? null : value + suffix;
+    }
+
+    private String prefixed(String prefix, String value) {
+        return value == null || value.isEmpty() ? null : prefix + value;
+    }
+
+    private String join(String first, String second) {
+        if (first == null || first.isEmpty()) {
+            return second;
+        }
+        return second == null || second.isEmpty() ? first : first + " " + second;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.screen.data.fetcher.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Request-scoped cancellation signal.
+ * The controller cancels it when the client disconnects or the async request
+ * times out. Services check it between stages and register callbacks to abort
+ * blocking I/O (LLM calls, PDF downloads) that is already in flight.
+ */
+@Slf4j
+public class CancellationToken {
+
+    // Shared token for callers that have no request to tie the work to
+    public static final CancellationToken NONE = new CancellationToken(false);
+
+    private final boolean cancellable;
+    private final List<Runnable> callbacks = new ArrayList<>();
+    private volatile boolean cancelled;
+
+    public CancellationToken() {
+        this(true);
+    }
+
+    private CancellationToken(boolean cancellable) {
+        this.cancellable = cancellable;
+    }
+
+    public void cancel() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (!cancellable || cancelled) {
+                return;
+            }
+            cancelled = true;
+            toRun = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        for (Runnable callback : toRun) {
+            try {
+                callback.run();
+            } catch (Exception e) {
+                log.debug("Cancellation callback failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Request cancelled by client");
+        }
+    }
+
+    /**
+     * Register a callback to run on cancellation. Runs immediately if the token
+     * is already cancelled.
+     *
+     * @param callback Action that aborts in-flight work
+     * @return Handle that unregisters the callback once the work has finished
+     */
+    public Runnable onCancel(Runnable callback) {
+        if (!cancellable) {
+            return () -> {
+            };
+        }
+        synchronized (this) {
+            if (!cancelled) {
+                callbacks.add(callback);
+                return () -> {
+                    synchronized (this) {
+                        callbacks.remove(callback);
+                    }
+                };
+            }
+        }
+        callback.run();
+        return () -> {
+        };
+    }
+}
@@ -0,0 +1,403 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.entity.CorporateAction;
+import com.example.screen.data.fetcher.entity.MoneyControlSymbol;
+import com.example.screen.data.fetcher.entity.TickerMetadata;
+import com.example.screen.data.fetcher.repository.CorporateActionRepository;
+import com.example.screen.data.fetcher.repository.TickerMetadataRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-ticker corporate actions kept as normalized rows, one per action.
+ * Refreshes insert new actions and update revised ones in place; upcoming vs
+ * previous is computed on read from the (ticker, exDate) index, so it stays
+ * correct after an ex-date passes.
+ * <p>
+ * Moneycontrol is scraped once per ticker for the full history (and on an
+ * explicit refresh). Later refreshes pick up new actions from the market-wide
+ * 5paisa tables, which are fetched once for all tickers, and fall back to
+ * Moneycontrol only when the ticker cannot be matched there.
+ */
+@Service
+@Slf4j
+public class CorporateActionService {
+
+    static final String[] ACTION_TYPES = { "dividends", "bonus", "splits", "rights" };
+
+    static final String SOURCE_MONEYCONTROL = "moneycontrol";
+    static final String SOURCE_FIVE_PAISA = "5paisa";
+
+    private static final long REFRESH_INTERVAL_DAYS = 7;
+
+    // Stored rows use Moneycontrol's date format whichever source they came from
+    private static final DateTimeFormatter DISPLAY_DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM, yyyy",
+            Locale.ENGLISH);
+
+    @Autowired
+    private MoneyControlService moneyControlService;
+
+    @Autowired
+    private FivePaisaService fivePaisaService;
+
+    @Autowired
+    private MoneyControlSymbolService symbolService;
+
+    @Autowired
+    private CorporateActionRepository corporateActionRepository;
+
+    @Autowired
+    private TickerMetadataRepository tickerMetadataRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CalendarIndexService calendarIndexService;
+
+    /**
+     * @param ticker  Stock ticker
+     * @param refresh If true, rescrape Moneycontrol even if the rows are recent
+     * @return Actions per type, split into upcoming and previous as of today
+     */
+    public Map<String, Object> getCorporateActions(String ticker, boolean refresh) {
+        TickerMetadata metadata = tickerMetadataRepository.findById(ticker).orElse(null);
+        LocalDateTime lastFetch = metadata != null ? metadata.getLastCorporateActionsFetch() : null;
+
+        String error = null;
+        if (refresh || lastFetch == null || lastFetch.isBefore(LocalDateTime.now().minusDays(REFRESH_INTERVAL_DAYS))) {
+            // History is already stored, so recent actions from 5paisa are enough
+            try {
+                boolean synced = !refresh && lastFetch != null && syncFromFivePaisa(ticker);
+                error = synced ? null : refresh(ticker);
+            } catch (DataIntegrityViolationException e) {
+                log.error("Could not store corporate actions for {}", ticker, e);
+                error = "Could not store corporate actions, try again";
+            }
+            if (error == null) {
+                if (metadata == null) {
+                    metadata = new TickerMetadata();
+                    metadata.setTicker(ticker);
+                }
+                lastFetch = LocalDateTime.now();
+                metadata.setLastCorporateActionsFetch(lastFetch);
+                tickerMetadataRepository.save(metadata);
+                calendarIndexService.updateTicker(ticker);
+            }
+        } else {
+            log.info("Returning stored corporate actions for {}", ticker);
+        }
+
+        Map<String, Object> result = read(ticker);
+        if (error != null && lastFetch == null) {
+            // Nothing stored to fall back on
+            Map<String, Object> errorResult = new HashMap<>();
+            errorResult.put("error", error);
+            return errorResult;
+        }
+        if (lastFetch != null) {
+            result.put("fetchedAt", lastFetch.toString());
+        }
+        return result;
+    }
+
+    /**
+     * @return Error message, or null on success
+     */
+    private String refresh(String ticker) {
+        log.info("Fetching corporate actions for {} from Moneycontrol", ticker);
+        Map<String, List<CorporateAction>> fetched;
+        try {
+            fetched = moneyControlService.fetchCorporateActions(ticker);
+        } catch (Exception e) {
+            log.error("Error fetching corporate actions from Moneycontrol for {}", ticker, e);
+            return e.getMessage();
+        }
+        if (fetched == null) {
+            return "Company not found on Moneycontrol";
+        }
+
+        List<CorporateAction> rows = new ArrayList<>();
+        Set<String> fetchedTypes = new HashSet<>();
+        for (Map.Entry<String, List<CorporateAction>> entry : fetched.entrySet()) {
+            if (entry.getValue() != null) {
+                fetchedTypes.add(entry.getKey());
+                rows.addAll(entry.getValue());
+            }
+        }
+        if (fetchedTypes.isEmpty()) {
+            // Not stamped, so the next request tries again
+            return "Could not fetch corporate actions from Moneycontrol";
+        }
+
+        // Moneycontrol is the full history: it supersedes 5paisa rows and drops rows no longer listed,
+        // but only for the tabs that were actually fetched
+        upsert(ticker, rows, fetchedTypes, true);
+        return null;
+    }
+
+    /**
+     * Add actions for the ticker found in the current 5paisa tables.
+     *
+     * @return false if the ticker could not be matched to a 5paisa company, so
+     *         the caller should fall back to Moneycontrol
+     */
+    private boolean syncFromFivePaisa(String ticker) {
+        MoneyControlSymbol symbol = symbolService.resolve(ticker);
+        if (symbol == null || symbol.getSlug() == null) {
+            return false;
+        }
+
+        Map<String, List<Map<String, String>>> found;
+        try {
+            // Moneycontrol slugs are the company name squashed, which is how 5paisa names are keyed
+            found = fivePaisaService.findCompanyActions(FivePaisaService.companyKey(symbol.getSlug()));
+        } catch (Exception e) {
+            log.error("Error reading 5paisa corporate actions for {}", ticker, e);
+            return false;
+        }
+        if (found.values().stream().allMatch(List::isEmpty)) {
+            log.info("No 5paisa corporate actions matched {} ({})", ticker, symbol.getSlug());
+            return false;
+        }
+
+        List<CorporateAction> rows = new ArrayList<>();
+        for (Map.Entry<String, List<Map<String, String>>> entry : found.entrySet()) {
+            for (Map<String, String> row : entry.getValue()) {
+                CorporateAction action = fromFivePaisa(ticker, entry.getKey(), row);
+                if (action != null) {
+                    rows.add(action);
+                }
+            }
+        }
+        // 5paisa only lists recent actions, so nothing stored is removed
+        upsert(ticker, rows, Set.of(), false);
+        return true;
+    }
+
+    /**
+     * Store fetched rows by their natural key (see {@link #actionKey}): new
+     * actions are inserted and revised ones updated in place, all in one
+     * transaction. A concurrent refresh of the same ticker makes the write fail
+     * on the unique key; it is then recomputed once against the rows that
+     * refresh stored.
+     *
+     * @param replaceTypes Types the rows are the complete list for; stored rows
+     *                     of these types that were not fetched are deleted
+     * @param overwrite    Whether the rows may replace the columns of a row
+     *                     stored from the other source
+     * @throws DataIntegrityViolationException if the retry fails too
+     */
+    private void upsert(String ticker, List<CorporateAction> rows, Set<String> replaceTypes, boolean overwrite) {
+        try {
+            write(ticker, rows, replaceTypes, overwrite);
+        } catch (DataIntegrityViolationException e) {
+            log.info("Corporate actions for {} stored concurrently, retrying: {}", ticker, e.getMessage());
+            write(ticker, rows, replaceTypes, overwrite);
+        }
+    }
+
+    private void write(String ticker, List<CorporateAction> rows, Set<String> replaceTypes, boolean overwrite) {
+        Map<String, CorporateAction> stored = new HashMap<>();
+        List<CorporateAction> stale = new ArrayList<>();
+        for (CorporateAction action : corporateActionRepository.findByTicker(ticker)) {
+            // Rows keyed on all their fields before may be stored twice under one key
+            if (stored.putIfAbsent(actionKey(action), action) != null) {
+                stale.add(action);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> seen = new HashSet<>();
+        List<CorporateAction> fresh = new ArrayList<>();
+        List<CorporateAction> revised = new ArrayList<>();
+        for (CorporateAction action : rows) {
+            String key = actionKey(action);
+            if (!seen.add(key)) {
+                continue;
+            }
+            CorporateAction existing = stored.get(key);
+            if (existing == null) {
+                // A failed attempt may have assigned an id that was never stored
+                action.setId(null);
+                action.setRowHash(rowHash(key));
+                action.setFetchedAt(now);
+                fresh.add(action);
+            } else if (!existing.getFields().equals(action.getFields())
+                    && (overwrite || action.getSource().equals(existing.getSource()))) {
+                existing.setFields(action.getFields());
+                existing.setSource(action.getSource());
+                existing.setRowHash(rowHash(key));
+                existing.setFetchedAt(now);
+                revised.add(existing);
+            }
+        }
+        for (Map.Entry<String, CorporateAction> entry : stored.entrySet()) {
+            if (replaceTypes.contains(entry.getValue().getActionType()) && !seen.contains(entry.getKey())) {
+                stale.add(entry.getValue());
+            }
+        }
+
+        corporateActionRepository.replaceRows(stale, revised, fresh);
+        log.info("Corporate actions for {}: {} new, {} revised, {} removed", ticker, fresh.size(), revised.size(),
+                stale.size());
+    }
+
+    /**
+     * Map a 5paisa row onto the columns Moneycontrol rows use for the same type.
+     *
+     * @return The action, or null if it has no usable date
+     */
+    private CorporateAction fromFivePaisa(String ticker, String type, Map<String, String> row) {
+        LocalDate date = FivePaisaService.parseDate("splits".equals(type) ? row.get("splitDate") : row.get("exDate"));
+        if (date == null) {
+            return null;
+        }
+        String displayDate = date.format(DISPLAY_DATE_FORMAT);
+        String announcement = displayDate(row.get("announcementDate"));
+        String record = displayDate(row.get("recordDate"));
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("Announcement", announcement);
+        switch (type) {
+            case "dividends" -> {
+                fields.put("Ex-Date", displayDate);
+                fields.put("Type", row.getOrDefault("type", ""));
+                fields.put("Dividend(Rs)", "");
+                fields.put("Dividend %", row.getOrDefault("percentage", ""));
+                fields.put("Remarks", record.isEmpty() ? "" : "Record date " + record);
+            }
+            case "bonus" -> {
+                fields.put("Ex-Date", displayDate);
+                fields.put("Ratio", row.getOrDefault("ratio", ""));
+                fields.put("Remarks", record.isEmpty() ? "" : "Record date " + record);
+            }
+            case "splits" -> {
+                fields.put("Split Date", displayDate);
+                fields.put("Old FV", row.getOrDefault("oldFV", ""));
+                fields.put("New FV", row.getOrDefault("newFV", ""));
+            }
+            case "rights" -> {
+                fields.put("Ex-Date", displayDate);
+                fields.put("Ratio", row.getOrDefault("ratio", ""));
+                fields.put("Premium", row.getOrDefault("premium", ""));
+            }
+            default -> {
+                return null;
+            }
+        }
+
+        CorporateAction action = new CorporateAction();
+        action.setTicker(ticker);
+        action.setActionType(type);
+        action.setSource(SOURCE_FIVE_PAISA);
+        action.setExDate(date);
+        try {
+            action.setFields(objectMapper.writeValueAsString(fields));
+        } catch (Exception e) {
+            log.warn("Skipping unserializable 5paisa row for {}: {}", ticker, e.getMessage());
+            return null;
+        }
+        return action;
+    }
+
+    private String displayDate(String value) {
+        LocalDate date = FivePaisaService.parseDate(value);
+        return date != null ? date.format(DISPLAY_DATE_FORMAT) : (value != null ? value : "");
+    }
+
+    private Map<String, Object> read(String ticker) {
+        Map<String, Object> result = new HashMap<>();
+        Map<String, Map<String, List<Map<String, String>>>> byType = new LinkedHashMap<>();
+        for (String type : ACTION_TYPES) {
+            Map<String, List<Map<String, String>>> lists = new HashMap<>();
+            lists.put("upcoming", new ArrayList<>());
+            lists.put("previous", new ArrayList<>());
+            byType.put(type, lists);
+        }
+
+        LocalDate today = LocalDate.now();
+        for (CorporateAction action : corporateActionRepository.findByTickerAndExDateAfterOrderByExDateAsc(ticker,
+                today)) {
+            addRow(byType, action, "upcoming");
+        }
+        for (CorporateAction action : corporateActionRepository.findPrevious(ticker, today)) {
+            addRow(byType, action, "previous");
+        }
+
+        result.putAll(byType);
+        return result;
+    }
+
+    private void addRow(Map<String, Map<String, List<Map<String, String>>>> byType, CorporateAction action,
+            String bucket) {
+        Map<String, List<Map<String, String>>> lists = byType.get(action.getActionType());
+        if (lists == null) {
+            return;
+        }
+        try {
+            lists.get(bucket).add(objectMapper.readValue(action.getFields(),
+                    new TypeReference<LinkedHashMap<String, String>>() {
+                    }));
+        } catch (Exception e) {
+            log.warn("Skipping unreadable corporate action row {}", action.getId());
+        }
+    }
+
+    /**
+     * Identity of an action across refreshes and sources: ticker, type and
+     * ex-date, plus the dividend type since an interim and a special dividend
+     * can share an ex-date. Moneycontrol and 5paisa rows for the same action
+     * get the same key.
+     */
+    private String actionKey(CorporateAction action) {
+        String discriminator = "";
+        if (action.getExDate() == null) {
+            // No date to tell undated rows apart, so keep each distinct row
+            discriminator = action.getFields();
+        } else if ("dividends".equals(action.getActionType())) {
+            discriminator = field(action, "Type").trim().toLowerCase(Locale.ROOT);
+        }
+        return action.getTicker() + "|" + action.getActionType() + "|" + action.getExDate() + "|" + discriminator;
+    }
+
+    private String field(CorporateAction action, String column) {
+        try {
+            Map<String, String> fields = objectMapper.readValue(action.getFields(),
+                    new TypeReference<LinkedHashMap<String, String>>() {
+                    });
+            String value = fields.get(column);
+            return value != null ? value : "";
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private String rowHash(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -5,13 +5,24 @@ import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
@@ -26,31 +37,112 @@ public class FivePaisaService {
     // 2 days in milliseconds
     private static final long CACHE_DURATION_MS = 2L * 24 * 60 * 60 * 1000;
 
+    // Tables for past years no longer change, so keep them for 10 years
+    private static final long CLOSED_YEAR_CACHE_MS = 3650L * 24 * 60 * 60 * 1000;
+
+    private static final String[] ACTION_TYPES = { "dividends", "bonus", "splits", "rights" };
+
+    // 5paisa dates look like "21 Oct 2025" or "21-Oct-2025"
+    private static final List<java.time.format.DateTimeFormatter> DATE_FORMATS = List.of(
+            java.time.format.DateTimeFormatter.ofPattern("d MMM yyyy", Locale.ENGLISH),
+            java.time.format.DateTimeFormatter.ofPattern("d-MMM-yyyy", Locale.ENGLISH),
+            java.time.format.DateTimeFormatter.ofPattern("d MMM, yyyy", Locale.ENGLISH),
+            java.time.format.DateTimeFormatter.ofPattern("dd-MM-yyyy", Locale.ENGLISH),
+            java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy", Locale.ENGLISH));
+
+    // Page fetch is capped at 10s; allow for queueing behind other tables
+    private static final long LOAD_TIMEOUT_SECONDS = 30;
+
+    @org.springframework.beans.factory.annotation.Value("${fivepaisa.threads:4}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    // One upstream load per (type, year) cache key; concurrent callers share it
+    private final Map<String, CompletableFuture<List<Map<String, String>>>> inFlight = new ConcurrentHashMap<>();
+
+    // Company key -> rows for each loaded (type, year) table, so per-ticker lookups
+    // do not rescan or re-read the market-wide lists
+    private final Map<String, CompanyIndex> companyIndexes = new ConcurrentHashMap<>();
+
+    private record CompanyIndex(Map<String, List<Map<String, String>>> byCompany, long loadedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
     public Map<String, List<Map<String, String>>> getAllCorporateActions(Integer year) {
-        Map<String, List<Map<String, String>>> result = new HashMap<>();
         String yearStr = (year != null) ? String.valueOf(year) : "";
 
-        result.put("dividends", fetchActions("dividends", yearStr));
-        result.put("bonus", fetchActions("bonus", yearStr));
-        result.put("splits", fetchActions("splits", yearStr));
-        result.put("rights", fetchActions("rights", yearStr));
+        // Start all four tables before waiting, so a cold load takes as long as the slowest one
+        Map<String, CompletableFuture<List<Map<String, String>>>> pending = new LinkedHashMap<>();
+        for (String type : ACTION_TYPES) {
+            pending.put(type, fetchActionsAsync(type, yearStr));
+        }
+
+        Map<String, List<Map<String, String>>> result = new HashMap<>();
+        for (Map.Entry<String, CompletableFuture<List<Map<String, String>>>> entry : pending.entrySet()) {
+            result.put(entry.getKey(), await(entry.getKey(), yearStr, entry.getValue()));
+        }
         return result;
     }
 
+    /**
+     * @param type One of dividends, bonus, splits, rights
+     * @param year Year table to read, or null for the current listing
+     * @return Rows as scraped, from the 2-day cache when fresh
+     */
+    public List<Map<String, String>> getActions(String type, Integer year) {
+        return fetchActions(type, year != null ? String.valueOf(year) : "");
+    }
+
     private List<Map<String, String>> fetchActions(String type, String year) {
+        return await(type, year, fetchActionsAsync(type, year));
+    }
+
+    private CompletableFuture<List<Map<String, String>>> fetchActionsAsync(String type, String year) {
         String cacheKey = "market_actions_" + type + "_" + (year.isEmpty() ? "current" : year);
 
         // Check cache first
-        if (!cacheService.isOlderThan(cacheKey, CACHE_DURATION_MS)) {
+        if (!cacheService.isOlderThan(cacheKey, cacheDuration(year))) {
             List<Map<String, String>> cachedData = cacheService.get(cacheKey,
                     new com.fasterxml.jackson.core.type.TypeReference<List<Map<String, String>>>() {
                     });
             if (cachedData != null && !cachedData.isEmpty()) {
                 log.info("Returning cached data for {} year {}", type, year);
-                return cachedData;
+                return CompletableFuture.completedFuture(cachedData);
             }
         }
 
+        return inFlight.computeIfAbsent(cacheKey, key -> {
+            CompletableFuture<List<Map<String, String>>> future = CompletableFuture
+                    .supplyAsync(() -> loadActions(type, year, key), executor);
+            // Async so the removal never runs inside inFlight.computeIfAbsent
+            future.whenCompleteAsync((actions, e) -> inFlight.remove(key, future), executor);
+            return future;
+        });
+    }
+
+    private List<Map<String, String>> await(String type, String year,
+            CompletableFuture<List<Map<String, String>>> future) {
+        try {
+            return future.get(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Error loading {} year {} from 5paisa: {}", type, year, e.toString());
+        }
+        return new ArrayList<>();
+    }
+
+    private List<Map<String, String>> loadActions(String type, String year, String cacheKey) {
         List<Map<String, String>> actions = new ArrayList<>();
         String url;
         if (year != null && !year.isEmpty()) {
@@ -154,7 +246,7 @@ public class FivePaisaService {
 
             // Save to cache
             if (!actions.isEmpty()) {
-                cacheService.put(cacheKey, actions, CACHE_DURATION_MS);
+                cacheService.put(cacheKey, actions, cacheDuration(year));
             }
 
         } catch (IOException e) {
@@ -164,6 +256,85 @@ public class FivePaisaService {
         return actions;
     }
 
+    /**
+     * Actions for one company from the current listing and this year's tables.
+     *
+     * @param companyKey Key from {@link #companyKey(String)}
+     * @return Rows per action type (empty lists when the company has none)
+     */
+    public Map<String, List<Map<String, String>>> findCompanyActions(String companyKey) {
+        String currentYear = String.valueOf(java.time.LocalDate.now().getYear());
+        Map<String, List<Map<String, String>>> result = new LinkedHashMap<>();
+        for (String type : ACTION_TYPES) {
+            List<Map<String, String>> rows = new ArrayList<>();
+            for (String year : new String[] { "", currentYear }) {
+                rows.addAll(companyIndex(type, year).byCompany().getOrDefault(companyKey, List.of()));
+            }
+            result.put(type, rows);
+        }
+        return result;
+    }
+
+    /**
+     * Normalize a company name (or Moneycontrol slug) for matching, e.g.
+     * "Tata Consultancy Services Ltd." and "tataconsultancyservices" both give
+     * "tataconsultancyservices".
+     */
+    public static String companyKey(String name) {
+        if (name == null)
+            return "";
+        String key = name.toLowerCase(Locale.ENGLISH).replaceAll("\\b(limited|ltd)\\b", "");
+        return key.replaceAll("[^a-z0-9]", "");
+    }
+
+    /**
+     * @param year Year table, or null/empty for the current listing
+     * @return true for a past year, whose table will not change any more
+     */
+    public static boolean isClosedYear(String year) {
+        return year != null && !year.isEmpty() && Integer.parseInt(year) < java.time.LocalDate.now().getYear();
+    }
+
+    private long cacheDuration(String year) {
+        return isClosedYear(year) ? CLOSED_YEAR_CACHE_MS : CACHE_DURATION_MS;
+    }
+
+    /**
+     * @return The date, or null if it is empty or in a format 5paisa has not used so far
+     */
+    public static java.time.LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (java.time.format.DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return java.time.LocalDate.parse(value.trim(), format);
+            } catch (java.time.format.DateTimeParseException ignored) {
+                // Try the next format
+            }
+        }
+        return null;
+    }
+
+    private CompanyIndex companyIndex(String type, String year) {
+        String key = type + "_" + (year.isEmpty() ? "current" : year);
+        CompanyIndex index = companyIndexes.get(key);
+        if (index != null && System.currentTimeMillis() - index.loadedAt() < CACHE_DURATION_MS) {
+            return index;
+        }
+
+        Map<String, List<Map<String, String>>> byCompany = new HashMap<>();
+        for (Map<String, String> row : fetchActions(type, year)) {
+            byCompany.computeIfAbsent(companyKey(row.get("company")), k -> new ArrayList<>()).add(row);
+        }
+        index = new CompanyIndex(byCompany, System.currentTimeMillis());
+        if (!byCompany.isEmpty()) {
+            // A failed fetch is retried on the next lookup instead of hiding the data for 2 days
+            companyIndexes.put(key, index);
+        }
+        return index;
+    }
+
     private String getTypeCode(String type) {
         if (type == null)
             return "D";
@@ -0,0 +1,241 @@
+package com.example.screen.data.fetcher.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits LLM calls within the provider's quota instead of finding out from a
+ * 429: at most {@code requests-per-minute} calls and {@code tokens-per-minute}
+ * estimated tokens in any 60s window, and {@code max-in-flight} at once.
+ * Callers queue in two FIFO lanes; background calls only start when no
+ * interactive call is waiting. When the queue is full, or a call has waited
+ * {@code max-wait-ms}, it is shed with a "LLM busy" error. After the provider
+ * reports its quota exhausted, nothing starts for {@code cooldown-ms}.
+ * <p>
+ * Metrics: {@code llm.scheduler.queue.depth} and {@code llm.scheduler.wait}
+ * per lane, {@code llm.scheduler.in.flight}, {@code llm.scheduler.shed}.
+ */
+@Service
+@Slf4j
+public class LlmRequestScheduler {
+
+    public enum Lane {
+        INTERACTIVE, BACKGROUND
+    }
+
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${llm.scheduler.requests-per-minute:10}")
+    private int requestsPerMinute;
+
+    @Value("${llm.scheduler.tokens-per-minute:250000}")
+    private long tokensPerMinute;
+
+    @Value("${llm.scheduler.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${llm.scheduler.max-queue:50}")
+    private int maxQueue;
+
+    @Value("${llm.scheduler.max-wait-ms:120000}")
+    private long maxWaitMs;
+
+    @Value("${llm.scheduler.cooldown-ms:60000}")
+    private long cooldownMs;
+
+    private record Ticket(Lane lane, long tokens) {
+    }
+
+    private record Admitted(long at, long tokens) {
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    // Guarded by lock
+    private final Map<Lane, Deque<Ticket>> queues = new EnumMap<>(Lane.class);
+    private final Deque<Admitted> window = new ArrayDeque<>();
+    private long windowTokens;
+    private int inFlight;
+    private long cooldownUntil = System.nanoTime();
+
+    @PostConstruct
+    void init() {
+        for (Lane lane : Lane.values()) {
+            queues.put(lane, new ArrayDeque<>());
+            Gauge.builder("llm.scheduler.queue.depth", this, scheduler -> scheduler.depth(lane))
+                    .tag("lane", lane.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("llm.scheduler.in.flight", this, scheduler -> scheduler.inFlight()).register(meterRegistry);
+    }
+
+    /**
+     * Wait for a slot. Every successful acquire must be followed by
+     * {@link #release()}.
+     *
+     * @param tokens Estimated prompt plus response tokens
+     * @throws CancellationException if the token is cancelled while waiting
+     * @throws RuntimeException      "LLM busy" if the call is shed
+     */
+    public void acquire(Lane lane, long tokens, CancellationToken token) {
+        Ticket ticket = new Ticket(lane, tokens);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        Runnable unregister = token.onCancel(this::signalAll);
+        lock.lock();
+        try {
+            if (depth(Lane.INTERACTIVE) + depth(Lane.BACKGROUND) >= maxQueue) {
+                throw shed(lane, "queue full");
+            }
+            Deque<Ticket> queue = queues.get(lane);
+            queue.addLast(ticket);
+            try {
+                while (true) {
+                    token.throwIfCancelled();
+                    long now = System.nanoTime();
+                    long waitNanos = isNext(ticket) ? nanosUntilAdmissible(tokens, now) : Long.MAX_VALUE;
+                    if (waitNanos == 0) {
+                        queue.remove(ticket);
+                        admit(tokens, now);
+                        // The next ticket in line may be admissible too
+                        changed.signalAll();
+                        break;
+                    }
+                    if (now - deadline >= 0) {
+                        throw shed(lane, "waited " + maxWaitMs + " ms");
+                    }
+                    changed.awaitNanos(Math.min(waitNanos, deadline - now));
+                }
+            } catch (InterruptedException e) {
+                // The ticket behind this one may now be at the head
+                queue.remove(ticket);
+                changed.signalAll();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("LLM call interrupted");
+            } catch (RuntimeException e) {
+                if (queue.remove(ticket)) {
+                    changed.signalAll();
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+            unregister.run();
+        }
+        meterRegistry.timer("llm.scheduler.wait", "lane", lane.name().toLowerCase())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The provider rejected a call for quota: hold everything back for a while
+     * rather than keep hitting it.
+     */
+    public void quotaExhausted() {
+        lock.lock();
+        try {
+            cooldownUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cooldownMs);
+            log.warn("LLM quota exhausted, pausing calls for {} ms", cooldownMs);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Head of its lane, and no interactive call waiting ahead of a background one
+    private boolean isNext(Ticket ticket) {
+        Deque<Ticket> interactive = queues.get(Lane.INTERACTIVE);
+        if (!interactive.isEmpty()) {
+            return interactive.peekFirst() == ticket;
+        }
+        return queues.get(Lane.BACKGROUND).peekFirst() == ticket;
+    }
+
+    /**
+     * @return 0 if a call of this size can start now, otherwise how long until
+     *         that may change (a release also wakes waiters)
+     */
+    private long nanosUntilAdmissible(long tokens, long now) {
+        while (!window.isEmpty() && now - window.peekFirst().at() >= WINDOW_NANOS) {
+            windowTokens -= window.pollFirst().tokens();
+        }
+        if (now - cooldownUntil < 0) {
+            return cooldownUntil - now;
+        }
+        if (inFlight >= maxInFlight) {
+            return Long.MAX_VALUE;
+        }
+        // A call larger than the whole budget still goes through once the window is empty
+        boolean overBudget = window.size() >= requestsPerMinute
+                || !window.isEmpty() && windowTokens + tokens > tokensPerMinute;
+        if (overBudget) {
+            return window.peekFirst().at() + WINDOW_NANOS - now;
+        }
+        return 0;
+    }
+
+    private void admit(long tokens, long now) {
+        inFlight++;
+        window.addLast(new Admitted(now, tokens));
+        windowTokens += tokens;
+    }
+
+    private RuntimeException shed(Lane lane, String reason) {
+        meterRegistry.counter("llm.scheduler.shed", "lane", lane.name().toLowerCase()).increment();
+        log.warn("Shedding {} LLM call: {}", lane, reason);
+        return new RuntimeException("LLM busy, try again in a few minutes");
+    }
+
+    private void signalAll() {
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int depth(Lane lane) {
+        lock.lock();
+        try {
+            return queues.get(lane).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.entity.LlmResponse;
+import com.example.screen.data.fetcher.repository.LlmResponseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Persistent cache of LLM responses keyed by a hash of the endpoint, model and
+ * normalized prompt. Each LlmService method stores with its own TTL. Counter
+ * {@code llm.cache} is tagged with the method and {@code result=hit|miss}.
+ */
+@Service
+@Slf4j
+public class LlmResponseCacheService {
+
+    @Autowired
+    private LlmResponseRepository llmResponseRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${llm.cache.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * @return The cached response, or null if there is none or it expired
+     */
+    public String get(String method, String key) {
+        if (!enabled) {
+            return null;
+        }
+        String response = null;
+        try {
+            response = llmResponseRepository.findById(key)
+                    .filter(cached -> cached.getExpiresAt().isAfter(LocalDateTime.now()))
+                    .map(LlmResponse::getResponse)
+                    .orElse(null);
+        } catch (Exception e) {
+            log.warn("Could not read cached LLM response for {}: {}", method, e.getMessage());
+        }
+        meterRegistry.counter("llm.cache", "method", method, "result", response != null ? "hit" : "miss")
+                .increment();
+        return response;
+    }
+
+    public void put(String method, String key, String response, long ttlMillis) {
+        if (!enabled || response == null || ttlMillis <= 0) {
+            return;
+        }
+        try {
+            LlmResponse cached = new LlmResponse();
+            cached.setId(key);
+            cached.setMethod(method);
+            cached.setResponse(response);
+            cached.setCreatedAt(LocalDateTime.now());
+            cached.setExpiresAt(cached.getCreatedAt().plusNanos(ttlMillis * 1_000_000));
+            llmResponseRepository.save(cached);
+        } catch (Exception e) {
+            log.warn("Could not cache LLM response for {}: {}", method, e.getMessage());
+        }
+    }
+
+    /**
+     * Drop a response the caller could not use, so the next call asks again.
+     */
+    public void evict(String key) {
+        llmResponseRepository.deleteById(key);
+    }
+
+    @Scheduled(fixedDelayString = "${llm.cache.cleanup-interval-ms:86400000}")
+    public void deleteExpired() {
+        int deleted = llmResponseRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired LLM responses", deleted);
+        }
+    }
+
+    /**
+     * SHA-256 of the endpoint, model and prompt. Line endings and trailing
+     * whitespace are normalized so cosmetic differences still hit.
+     */
+    public static String key(String endpoint, String model, String prompt) {
+        String normalized = prompt.replace("\r\n", "\n").replaceAll("[ \t]+\n", "\n").strip();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((endpoint + "\n" + model + "\n").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -16,11 +17,24 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 @Service
 @Slf4j
 public class LlmService {
 
+    // Method names for the response cache and its metrics
+    private static final String RELATED_ENTITIES = "related-entities";
+    private static final String PDF_SUMMARY = "pdf-summary";
+    private static final String NEWS_IMPACT = "news-impact";
+    private static final String NEWS_SCORES = "news-scores";
+
+    // Rough token estimate for the scheduler's budget: ~4 characters per token plus room for the answer
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int RESPONSE_TOKENS = 1024;
+
     @Value("${llm.api.url}")
     private String apiUrl;
 
@@ -29,6 +43,22 @@ public class LlmService {
     @Value("${llm.model}")
     private String model;
 
+    // Related entities barely change; news prompts embed headlines, so their answers age quickly
+    @Value("${llm.cache.related-entities-ttl-ms:2592000000}")
+    private long relatedEntitiesTtlMs;
+
+    @Value("${llm.cache.pdf-summary-ttl-ms:7776000000}")
+    private long pdfSummaryTtlMs;
+
+    @Value("${llm.cache.news-ttl-ms:21600000}")
+    private long newsTtlMs;
+
+    @Autowired
+    private LlmResponseCacheService responseCache;
+
+    @Autowired
+    private LlmRequestScheduler scheduler;
+
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
 
@@ -56,6 +86,10 @@ public class LlmService {
     }
 
     public List<String> getRelatedEntities(String ticker) {
+        return getRelatedEntities(ticker, CancellationToken.NONE);
+    }
+
+    public List<String> getRelatedEntities(String ticker, CancellationToken token) {
         if (apiKey == null || apiKey.isEmpty()) {
             log.warn("getRelatedEntities: API Key is missing");
             return new ArrayList<>();
@@ -68,8 +102,14 @@ public class LlmService {
                 ticker);
 
         try {
-            String response = callLlm(prompt);
-            return parseJsonArray(response);
+            String response = callLlm(RELATED_ENTITIES, prompt, token);
+            List<String> entities = parseJsonArray(response);
+            if (entities.isEmpty()) {
+                forget(prompt);
+            }
+            return entities;
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching related entities from LLM", e);
             return new ArrayList<>();
@@ -77,6 +117,10 @@ public class LlmService {
     }
 
     public String summarizePdfContent(String ticker, String pdfText) {
+        return summarizePdfContent(ticker, pdfText, CancellationToken.NONE);
+    }
+
+    public String summarizePdfContent(String ticker, String pdfText, CancellationToken token) {
         if (apiKey == null || apiKey.isEmpty()) {
             return "LLM API Key is missing. Cannot generate summary.";
         }
@@ -95,7 +139,9 @@ public class LlmService {
                 ticker, pdfText);
 
         try {
-            return callLlm(prompt);
+            return callLlm(PDF_SUMMARY, prompt, token);
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error generating PDF summary from LLM", e);
             if (e.getMessage() != null && e.getMessage().contains("Quota Limit Exhausted")) {
@@ -106,6 +152,11 @@ public class LlmService {
     }
 
     public String summarizeImpact(String ticker, Map<String, List<Map<String, String>>> newsData) {
+        return summarizeImpact(ticker, newsData, CancellationToken.NONE);
+    }
+
+    public String summarizeImpact(String ticker, Map<String, List<Map<String, String>>> newsData,
+            CancellationToken token) {
         if (apiKey == null || apiKey.isEmpty()) {
             return "LLM API Key is missing. Cannot generate summary.";
         }
@@ -134,7 +185,9 @@ public class LlmService {
                 ticker, newsContent.toString());
 
         try {
-            return callLlm(prompt);
+            return callLlm(NEWS_IMPACT, prompt, token);
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error generating summary from LLM", e);
             if (e.getMessage() != null && e.getMessage().contains("Quota Limit Exhausted")) {
@@ -145,10 +198,32 @@ public class LlmService {
     }
 
     public List<Map<String, Object>> filterAndScoreNews(String ticker, List<Map<String, String>> newsItems) {
-        if (apiKey == null || apiKey.isEmpty() || newsItems.isEmpty()) {
+        return filterAndScoreNews(ticker, newsItems, CancellationToken.NONE);
+    }
+
+    public List<Map<String, Object>> filterAndScoreNews(String ticker, List<Map<String, String>> newsItems,
+            CancellationToken token) {
+        List<Map<String, Object>> scoredItems = scoreNews(ticker, newsItems, token);
+        return scoredItems != null ? scoredItems : new ArrayList<>();
+    }
+
+    /**
+     * Like {@link #filterAndScoreNews}, but tells a failed call apart from one
+     * that found nothing relevant.
+     *
+     * @return Relevant items with "score" and "reason", highest score first; null
+     *         if the LLM could not be asked or its answer could not be read
+     */
+    public List<Map<String, Object>> scoreNews(String ticker, List<Map<String, String>> newsItems,
+            CancellationToken token) {
+        if (newsItems.isEmpty()) {
             return new ArrayList<>();
         }
+        if (apiKey == null || apiKey.isEmpty()) {
+            return null;
+        }
 
+        String prompt = null;
         try {
             // Prepare simplified news list for prompt to save tokens
             List<String> simplifiedNews = new ArrayList<>();
@@ -156,7 +231,7 @@ public class LlmService {
                 simplifiedNews.add(String.format("ID:%d|Title:%s", i, newsItems.get(i).get("title")));
             }
 
-            String prompt = String.format(
+            prompt = String.format(
                     "Analyze the following news headlines for stock \"%s\". " +
                             "For each news item, assign an \"impact_score\" (0-10, where 10 is critical impact) and a brief \"reason\". "
                             +
@@ -165,7 +240,7 @@ public class LlmService {
                             "News:\n%s",
                     ticker, String.join("\n", simplifiedNews));
 
-            String response = callLlm(prompt);
+            String response = callLlm(NEWS_SCORES, prompt, token);
             List<Map<String, Object>> scoredItems = new ArrayList<>();
 
             JsonNode array = objectMapper.readTree(parseJsonContent(response));
@@ -186,9 +261,14 @@ public class LlmService {
             scoredItems.sort((a, b) -> ((Integer) b.get("score")).compareTo((Integer) a.get("score")));
             return scoredItems;
 
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error scoring news with LLM", e);
-            return new ArrayList<>();
+            if (prompt != null) {
+                forget(prompt);
+            }
+            return null;
         }
     }
 
@@ -208,15 +288,88 @@ public class LlmService {
         return content.trim();
     }
 
-    private String callLlm(String prompt) throws Exception {
-        if (apiUrl.contains("generativelanguage.googleapis.com")) {
-            return callGemini(prompt);
-        } else {
-            return callOpenAi(prompt);
+    /**
+     * Answer from the response cache when the same prompt was sent to the same
+     * model before; otherwise call the provider and cache the answer with the
+     * method's TTL. Failed calls throw and are never cached.
+     */
+    private String callLlm(String method, String prompt, CancellationToken token) throws Exception {
+        String cacheKey = LlmResponseCacheService.key(apiUrl, model, prompt);
+        String cached = responseCache.get(method, cacheKey);
+        if (cached != null) {
+            log.info("Using cached LLM response for {}", method);
+            return cached;
         }
+        // Report summaries run as background jobs; news analysis has a user waiting
+        LlmRequestScheduler.Lane lane = PDF_SUMMARY.equals(method) || token == CancellationToken.NONE
+                ? LlmRequestScheduler.Lane.BACKGROUND
+                : LlmRequestScheduler.Lane.INTERACTIVE;
+        String response = callLlm(lane, prompt, token);
+        responseCache.put(method, cacheKey, response, ttlMillis(method));
+        return response;
+    }
+
+    private long ttlMillis(String method) {
+        return switch (method) {
+            case RELATED_ENTITIES -> relatedEntitiesTtlMs;
+            case PDF_SUMMARY -> pdfSummaryTtlMs;
+            default -> newsTtlMs;
+        };
     }
 
-    private String callGemini(String prompt) throws Exception {
+    // A cached answer that could not be parsed would otherwise be served until it expires
+    private void forget(String prompt) {
+        try {
+            responseCache.evict(LlmResponseCacheService.key(apiUrl, model, prompt));
+        } catch (Exception e) {
+            log.warn("Could not evict cached LLM response: {}", e.getMessage());
+        }
+    }
+
+    private String callLlm(LlmRequestScheduler.Lane lane, String prompt, CancellationToken token) throws Exception {
+        token.throwIfCancelled();
+        scheduler.acquire(lane, prompt.length() / CHARS_PER_TOKEN + RESPONSE_TOKENS, token);
+        try {
+            if (apiUrl.contains("generativelanguage.googleapis.com")) {
+                return callGemini(prompt, token);
+            } else {
+                return callOpenAi(prompt, token);
+            }
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("Quota Limit Exhausted")) {
+                scheduler.quotaExhausted();
+            }
+            throw e;
+        } finally {
+            scheduler.release();
+        }
+    }
+
+    /**
+     * Send asynchronously so a client disconnect can abandon the pending call
+     * instead of holding the request thread until the provider answers.
+     */
+    private HttpResponse<String> send(HttpRequest request, CancellationToken token) throws Exception {
+        CompletableFuture<HttpResponse<String>> future = httpClient.sendAsync(request,
+                HttpResponse.BodyHandlers.ofString());
+        Runnable unregister = token.onCancel(() -> future.cancel(true));
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("LLM call interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        } finally {
+            unregister.run();
+        }
+    }
+
+    private String callGemini(String prompt, CancellationToken token) throws Exception {
         ObjectNode requestBody = objectMapper.createObjectNode();
         ArrayNode contents = requestBody.putArray("contents");
         ObjectNode part = contents.addObject();
@@ -243,7 +396,7 @@ public class LlmService {
                 .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request, token);
 
         if (response.statusCode() != 200) {
             String errorBody = response.body();
@@ -259,7 +412,7 @@ public class LlmService {
         return responseNode.path("candidates").get(0).path("content").path("parts").get(0).path("text").asText();
     }
 
-    private String callOpenAi(String prompt) throws Exception {
+    private String callOpenAi(String prompt, CancellationToken token) throws Exception {
         ObjectNode requestBody = objectMapper.createObjectNode();
         requestBody.put("model", model);
 
@@ -277,8 +430,12 @@ public class LlmService {
                 .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request, token);
 
+        if (response.statusCode() == 429) {
+            // Rate limit or insufficient_quota; reported like Gemini's so the scheduler backs off
+            throw new RuntimeException("Quota Limit Exhausted try after 1 hr");
+        }
         if (response.statusCode() != 200) {
             throw new RuntimeException("LLM API returned status " + response.statusCode() + ": " + response.body());
         }
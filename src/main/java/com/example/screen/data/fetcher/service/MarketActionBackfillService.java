@@ -0,0 +1,101 @@
+package com.example.screen.data.fetcher.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the 5paisa tables for a range of years in the background, so browsing
+ * history never waits on 5paisa. Past years are checkpointed by
+ * MarketActionService once stored, so each run only fetches what is missing
+ * (after a restart too) plus the current year when it is stale.
+ */
+@Service
+@Slf4j
+public class MarketActionBackfillService {
+
+    // Per table; the page fetch itself is capped at 10s
+    private static final long TABLE_TIMEOUT_SECONDS = 120;
+
+    @Autowired
+    private MarketActionService marketActionService;
+
+    @Value("${fivepaisa.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fivepaisa.backfill.from-year:2015}")
+    private int fromYear;
+
+    @Value("${fivepaisa.backfill.threads:2}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(initialDelayString = "${fivepaisa.backfill.initial-delay-ms:60000}", fixedDelayString = "${fivepaisa.backfill.interval-ms:86400000}")
+    public void backfill() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int currentYear = LocalDate.now().getYear();
+            log.info("Starting market actions backfill for {}-{}", fromYear, currentYear);
+
+            // Newest first, since recent years are the ones users browse
+            List<Future<Boolean>> pending = new ArrayList<>();
+            List<String> labels = new ArrayList<>();
+            for (int year = currentYear; year >= fromYear; year--) {
+                for (String type : MarketActionService.ACTION_TYPES) {
+                    int tableYear = year;
+                    pending.add(executor.submit(() -> marketActionService.preload(tableYear, type)));
+                    labels.add(type + " " + year);
+                }
+            }
+
+            int stored = 0;
+            for (int i = 0; i < pending.size(); i++) {
+                try {
+                    if (pending.get(i).get(TABLE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                        stored++;
+                    } else {
+                        log.warn("Backfill found no rows for {}; will retry next run", labels.get(i));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException | TimeoutException e) {
+                    log.error("Backfill failed for {}: {}", labels.get(i), e.toString());
+                }
+            }
+            log.info("Market actions backfill done: {} of {} tables stored", stored, pending.size());
+        } finally {
+            running.set(false);
+        }
+    }
+}
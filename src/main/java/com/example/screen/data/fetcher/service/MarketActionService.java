@@ -0,0 +1,321 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.dto.MarketActionPage;
+import com.example.screen.data.fetcher.entity.MarketAction;
+import com.example.screen.data.fetcher.entity.MarketActionCheckpoint;
+import com.example.screen.data.fetcher.repository.MarketActionCheckpointRepository;
+import com.example.screen.data.fetcher.repository.MarketActionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Market-wide corporate actions from 5paisa, stored as typed rows so callers can
+ * ask for a filtered, sorted page instead of pulling every table. Tables are
+ * (re)loaded from FivePaisaService when a query touches one that is missing or
+ * older than the 5paisa cache. Past-year tables are checkpointed once stored
+ * and never reloaded.
+ */
+@Service
+@Slf4j
+public class MarketActionService {
+
+    static final String[] ACTION_TYPES = { "dividends", "bonus", "splits", "rights" };
+
+    // Matches the 5paisa page cache
+    private static final long REFRESH_INTERVAL_MS = 2L * 24 * 60 * 60 * 1000;
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 500;
+
+    // Cursor value of a row whose sort column is null
+    private static final String NULL_CURSOR_VALUE = "\u0000";
+
+    // Sort parameter -> entity property; rows without a value sort last either way
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "exDate", "exDate",
+            "splitDate", "exDate",
+            "recordDate", "recordDate",
+            "announcementDate", "announcementDate",
+            "company", "companyKey");
+
+    @Autowired
+    private FivePaisaService fivePaisaService;
+
+    @Autowired
+    private MarketActionRepository marketActionRepository;
+
+    @Autowired
+    private MarketActionCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private CalendarIndexService calendarIndexService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // "dataset|type" -> epoch millis of the stored copy, to skip the DB check on every query
+    private final Map<String, Long> loadedAt = new ConcurrentHashMap<>();
+    private final Map<String, Object> loadLocks = new ConcurrentHashMap<>();
+
+    /**
+     * @param year          5paisa year table, or null for the current listing
+     * @param type          Action type, or null for all types
+     * @param from          Earliest ex-date (split date for splits), inclusive
+     * @param to            Latest ex-date, inclusive
+     * @param companyPrefix Start of the company name, matched ignoring case and punctuation
+     * @param sort          exDate, recordDate, announcementDate or company
+     * @param descending    Sort direction
+     * @param limit         Page size, capped at {@value #MAX_LIMIT}
+     * @param cursor        nextCursor from the previous page, or null for the first page
+     */
+    public MarketActionPage query(Integer year, String type, LocalDate from, LocalDate to, String companyPrefix,
+            String sort, boolean descending, Integer limit, String cursor) {
+        if (type != null && !Arrays.asList(ACTION_TYPES).contains(type)) {
+            throw new IllegalArgumentException("Unknown action type: " + type);
+        }
+        String dataset = year != null ? String.valueOf(year) : "current";
+        String column = SORT_COLUMNS.getOrDefault(sort != null ? sort : "exDate", "exDate");
+        int pageSize = Math.min(limit != null && limit > 0 ? limit : DEFAULT_LIMIT, MAX_LIMIT);
+
+        if (type != null) {
+            ensureLoaded(dataset, year, type);
+        } else {
+            // Warm the 5paisa cache for all stale tables at once; the loads below then hit it
+            boolean anyStale = false;
+            for (String actionType : ACTION_TYPES) {
+                anyStale |= !isFresh(loadedAt.get(dataset + "|" + actionType));
+            }
+            if (anyStale) {
+                fivePaisaService.getAllCorporateActions(year);
+            }
+            for (String actionType : ACTION_TYPES) {
+                ensureLoaded(dataset, year, actionType);
+            }
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("select a from MarketAction a where a.dataset = :dataset");
+        params.put("dataset", dataset);
+        if (type != null) {
+            jpql.append(" and a.actionType = :type");
+            params.put("type", type);
+        }
+        if (from != null) {
+            jpql.append(" and a.exDate >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" and a.exDate <= :to");
+            params.put("to", to);
+        }
+        String prefixKey = FivePaisaService.companyKey(companyPrefix);
+        if (!prefixKey.isEmpty()) {
+            jpql.append(" and a.companyKey like :prefix");
+            params.put("prefix", prefixKey + "%");
+        }
+
+        // Keyset pagination on (sort column, id), so deep pages cost the same as the first
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = decodeCursor(cursor);
+            String op = descending ? "<" : ">";
+            if (NULL_CURSOR_VALUE.equals(parts[0])) {
+                // Already in the trailing rows without a value
+                jpql.append(" and a.").append(column).append(" is null and a.id ").append(op).append(" :cursorId");
+            } else {
+                jpql.append(" and (a.").append(column).append(' ').append(op).append(" :cursorValue or (a.")
+                        .append(column).append(" = :cursorValue and a.id ").append(op).append(" :cursorId) or a.")
+                        .append(column).append(" is null)");
+            }
+            try {
+                if (!NULL_CURSOR_VALUE.equals(parts[0])) {
+                    params.put("cursorValue", "companyKey".equals(column) ? parts[0] : LocalDate.parse(parts[0]));
+                }
+                params.put("cursorId", Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                // A cursor from a different sort column, or hand-edited
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        String direction = descending ? " desc" : " asc";
+        jpql.append(" order by a.").append(column).append(direction).append(" nulls last, a.id").append(direction);
+
+        TypedQuery<MarketAction> query = entityManager.createQuery(jpql.toString(), MarketAction.class);
+        params.forEach(query::setParameter);
+        // One extra row tells us whether there is a next page
+        List<MarketAction> rows = query.setMaxResults(pageSize + 1).getResultList();
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            MarketAction last = rows.get(pageSize - 1);
+            Object value = "companyKey".equals(column) ? last.getCompanyKey() : sortDate(last, column);
+            nextCursor = encodeCursor((value != null ? value : NULL_CURSOR_VALUE) + "|" + last.getId());
+        }
+
+        List<Map<String, String>> items = new ArrayList<>(rows.size());
+        for (MarketAction row : rows) {
+            items.add(toRow(row));
+        }
+        return new MarketActionPage(items, nextCursor);
+    }
+
+    /**
+     * Load one table into the store unless a fresh (or, for past years,
+     * checkpointed) copy is already there. Used by the backfill job.
+     *
+     * @return true if the table is stored after the call
+     */
+    public boolean preload(int year, String type) {
+        return ensureLoaded(String.valueOf(year), year, type);
+    }
+
+    private boolean ensureLoaded(String dataset, Integer year, String type) {
+        String key = dataset + "|" + type;
+        if (isFresh(loadedAt.get(key))) {
+            return true;
+        }
+
+        synchronized (loadLocks.computeIfAbsent(key, k -> new Object())) {
+            if (isFresh(loadedAt.get(key))) {
+                return true;
+            }
+            boolean closed = FivePaisaService.isClosedYear(year != null ? String.valueOf(year) : null);
+            if (closed && checkpointRepository.existsById(key)) {
+                // Past years do not change; never look at the table again
+                loadedAt.put(key, Long.MAX_VALUE);
+                return true;
+            }
+
+            MarketAction latest = marketActionRepository.findFirstByDatasetAndActionTypeOrderByFetchedAtDesc(dataset, type)
+                    .orElse(null);
+            if (latest != null) {
+                long storedAt = latest.getFetchedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                if (isFresh(storedAt)) {
+                    loadedAt.put(key, storedAt);
+                    return true;
+                }
+            }
+
+            List<Map<String, String>> scraped = fivePaisaService.getActions(type, year);
+            if (scraped.isEmpty()) {
+                // Keep serving the stored copy, if any, until 5paisa answers again
+                log.warn("No 5paisa rows for {} {}; keeping stored table", type, dataset);
+                return latest != null;
+            }
+            store(dataset, type, scraped);
+
+            if (closed) {
+                MarketActionCheckpoint checkpoint = new MarketActionCheckpoint();
+                checkpoint.setId(key);
+                checkpoint.setDataset(dataset);
+                checkpoint.setActionType(type);
+                checkpoint.setRowCount(scraped.size());
+                checkpoint.setCompletedAt(LocalDateTime.now());
+                checkpointRepository.save(checkpoint);
+                loadedAt.put(key, Long.MAX_VALUE);
+            } else {
+                loadedAt.put(key, System.currentTimeMillis());
+            }
+            return true;
+        }
+    }
+
+    // Long.MAX_VALUE marks a checkpointed past year
+    private boolean isFresh(Long storedAt) {
+        return storedAt != null
+                && (storedAt == Long.MAX_VALUE || System.currentTimeMillis() - storedAt < REFRESH_INTERVAL_MS);
+    }
+
+    private void store(String dataset, String type, List<Map<String, String>> scraped) {
+        LocalDateTime now = LocalDateTime.now();
+        List<MarketAction> rows = new ArrayList<>(scraped.size());
+        for (Map<String, String> row : scraped) {
+            MarketAction action = new MarketAction();
+            action.setDataset(dataset);
+            action.setActionType(type);
+            action.setCompany(row.get("company"));
+            action.setCompanyKey(FivePaisaService.companyKey(row.get("company")));
+            action.setExDate(FivePaisaService.parseDate("splits".equals(type) ? row.get("splitDate") : row.get("exDate")));
+            action.setRecordDate(FivePaisaService.parseDate(row.get("recordDate")));
+            action.setAnnouncementDate(FivePaisaService.parseDate(row.get("announcementDate")));
+            action.setDividendType(row.get("type"));
+            action.setPercentage(row.get("percentage"));
+            action.setRatio(row.get("ratio"));
+            action.setPremium(row.get("premium"));
+            action.setOldFv(row.get("oldFV"));
+            action.setNewFv(row.get("newFV"));
+            action.setFetchedAt(now);
+            rows.add(action);
+        }
+
+        // 5paisa tables have no stable row ids, so a reload replaces the table
+        int removed = marketActionRepository.replaceTable(dataset, type, rows);
+        log.info("Stored {} {} rows for {} (replaced {})", rows.size(), type, dataset, removed);
+        calendarIndexService.replaceMarketTable(dataset, type, rows);
+    }
+
+    // Same keys as the scraped rows, so the UI renders either source
+    private Map<String, String> toRow(MarketAction action) {
+        Map<String, String> row = new LinkedHashMap<>();
+        row.put("company", action.getCompany());
+        putIfPresent(row, "type", action.getDividendType());
+        putIfPresent(row, "percentage", action.getPercentage());
+        putIfPresent(row, "ratio", action.getRatio());
+        putIfPresent(row, "premium", action.getPremium());
+        putIfPresent(row, "oldFV", action.getOldFv());
+        putIfPresent(row, "newFV", action.getNewFv());
+        putIfPresent(row, "announcementDate", action.getAnnouncementDate());
+        putIfPresent(row, "recordDate", action.getRecordDate());
+        putIfPresent(row, "splits".equals(action.getActionType()) ? "splitDate" : "exDate", action.getExDate());
+        row.put("actionType", action.getActionType());
+        return row;
+    }
+
+    private void putIfPresent(Map<String, String> row, String key, Object value) {
+        if (value != null) {
+            row.put(key, value.toString());
+        }
+    }
+
+    private LocalDate sortDate(MarketAction action, String column) {
+        switch (column) {
+            case "recordDate":
+                return action.getRecordDate();
+            case "announcementDate":
+                return action.getAnnouncementDate();
+            default:
+                return action.getExDate();
+        }
+    }
+
+    private String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = decoded.lastIndexOf('|');
+            return new String[] { decoded.substring(0, split), decoded.substring(split + 1) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -9,84 +9,109 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
-import jakarta.transaction.Transactional;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import com.example.screen.data.fetcher.entity.CorporateAction;
 
 @Service
 @Slf4j
 public class MoneyControlService {
 
-    private static final String AUTOSUGGEST_URL = "https://www.moneycontrol.com/mccode/common/autosuggestion_solr.php?classic=true&query=%s&type=1&format=json";
+    @Autowired
+    private MoneyControlSymbolService symbolService;
 
-    // Pattern to extract slug and ID from Moneycontrol URL
-    // Example:
-    // https://www.moneycontrol.com/india/stockpricequote/computers-software/tataconsultancyservices/TCS
-    private static final Pattern URL_PATTERN = Pattern
-            .compile("moneycontrol\\.com/india/stockpricequote/[^/]+/([^/]+)/([^/]+)");
+    private static final String[] ACTION_TYPES = { "dividends", "bonus", "splits", "rights" };
 
-    public Map<String, Object> getCorporateActions(String ticker) {
-        Map<String, Object> result = new HashMap<>();
-        try {
-            // 1. Search for the company to get the slug
-            String[] companyDetails = searchCompany(ticker);
-            if (companyDetails == null) {
-                result.put("error", "Company not found on Moneycontrol");
-                return result;
-            }
+    // Upper bound for a single corporate-action tab (Jsoup's own timeout is 30s)
+    private static final long ACTION_TIMEOUT_SECONDS = 45;
 
-            String slug = companyDetails[0];
-            String mcId = companyDetails[1];
+    @Value("${moneycontrol.corporate-actions.threads:4}")
+    private int corporateActionThreads;
 
-            log.info("Found Moneycontrol details for {}: Slug={}, ID={}", ticker, slug, mcId);
+    private static final int BROKER_RESEARCH_MAX_PAGES = 5;
 
-            // 2. Fetch Actions
-            result.put("dividends", fetchAction(slug, mcId, "dividends"));
-            result.put("bonus", fetchAction(slug, mcId, "bonus"));
-            result.put("splits", fetchAction(slug, mcId, "splits"));
-            result.put("rights", fetchAction(slug, mcId, "rights"));
+    @Value("${moneycontrol.broker-research.threads:5}")
+    private int brokerResearchThreads;
 
-            return result;
+    // Shared across requests so concurrent users cannot open unbounded connections
+    private ExecutorService corporateActionExecutor;
+    private ExecutorService brokerResearchExecutor;
 
-        } catch (Exception e) {
-            log.error("Error fetching corporate actions from Moneycontrol for {}", ticker, e);
-            result.put("error", e.getMessage());
-            return result;
-        }
+    @PostConstruct
+    void initExecutors() {
+        corporateActionExecutor = Executors.newFixedThreadPool(corporateActionThreads);
+        brokerResearchExecutor = Executors.newFixedThreadPool(brokerResearchThreads);
     }
 
-    private String[] searchCompany(String ticker) throws IOException {
-        String url = String.format(AUTOSUGGEST_URL, ticker);
-        String jsonResponse = Jsoup.connect(url)
-                .ignoreContentType(true)
-                .header("User-Agent", "Mozilla/5.0")
-                .execute()
-                .body();
+    @PreDestroy
+    void shutdownExecutors() {
+        corporateActionExecutor.shutdownNow();
+        brokerResearchExecutor.shutdownNow();
+    }
 
-        // Simple JSON parsing to find "link_src"
-        // We expect an array of objects. We take the first one.
-        int linkSrcIndex = jsonResponse.indexOf("\"link_src\":\"");
-        if (linkSrcIndex == -1)
+    /**
+     * Scrape all corporate-action tabs for a ticker. Rows carry the date that
+     * decides upcoming vs previous; classification happens when they are read.
+     *
+     * @param ticker Stock ticker
+     * @return Rows per action type (a null list for a tab that could not be
+     *         fetched), or null if the company is not on Moneycontrol
+     */
+    public Map<String, List<CorporateAction>> fetchCorporateActions(String ticker) {
+        // 1. Resolve the company to get the slug
+        com.example.screen.data.fetcher.entity.MoneyControlSymbol symbol = symbolService.resolve(ticker);
+        if (symbol == null || symbol.getSlug() == null) {
             return null;
+        }
 
-        int start = linkSrcIndex + 12;
-        int end = jsonResponse.indexOf("\"", start);
-        String linkSrc = jsonResponse.substring(start, end).replace("\\/", "/");
+        String slug = symbol.getSlug();
+        String mcId = symbol.getMcId();
 
-        Matcher matcher = URL_PATTERN.matcher(linkSrc);
-        if (matcher.find()) {
-            return new String[] { matcher.group(1), matcher.group(2) };
+        log.info("Found Moneycontrol details for {}: Slug={}, ID={}", ticker, slug, mcId);
+
+        // 2. Fetch Actions - each tab is a full page download, so fetch them
+        // concurrently and let each one fail on its own
+        Map<String, Future<List<CorporateAction>>> futures = new LinkedHashMap<>();
+        for (String actionType : ACTION_TYPES) {
+            futures.put(actionType,
+                    corporateActionExecutor.submit(() -> fetchAction(ticker, slug, mcId, actionType)));
+        }
+        Map<String, List<CorporateAction>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<List<CorporateAction>>> entry : futures.entrySet()) {
+            result.put(entry.getKey(), awaitAction(ticker, entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    private List<CorporateAction> awaitAction(String ticker, String actionType,
+            Future<List<CorporateAction>> future) {
+        try {
+            return future.get(ACTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Timed out fetching {} for {}", actionType, ticker);
+        } catch (ExecutionException e) {
+            log.error("Error fetching {} for {}", actionType, ticker, e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
         }
         return null;
     }
 
-    private Map<String, List<Map<String, String>>> fetchAction(String slug, String mcId, String actionType) {
-        Map<String, List<Map<String, String>>> result = new HashMap<>();
-        List<Map<String, String>> upcoming = new ArrayList<>();
-        List<Map<String, String>> previous = new ArrayList<>();
+    private List<CorporateAction> fetchAction(String ticker, String slug, String mcId, String actionType) {
+        List<CorporateAction> actions = new ArrayList<>();
 
         // URL Pattern:
         // https://www.moneycontrol.com/company-facts/tataconsultancyservices/dividends/TCS/
@@ -101,141 +126,100 @@ public class MoneyControlService {
                     .get();
 
             // Try to parse from Next.js JSON first
-            boolean jsonParsed = parseNextJsData(doc, actionType, upcoming, previous);
+            boolean jsonParsed = parseNextJsData(doc, ticker, actionType, actions);
 
             if (!jsonParsed) {
                 // Fallback to HTML Table parsing
                 log.info("JSON data not found or empty for {}, falling back to HTML table parsing", actionType);
-                parseHtmlTable(doc, upcoming, previous, actionType);
+                actions.clear();
+                parseHtmlTable(doc, ticker, actions, actionType);
             }
 
         } catch (Exception e) {
             log.error("Error fetching {} for {}", actionType, slug, e);
+            return null;
         }
 
-        result.put("upcoming", upcoming);
-        result.put("previous", previous);
-        return result;
+        return actions;
     }
 
-    @SuppressWarnings("unchecked")
-    private boolean parseNextJsData(Document doc, String actionType, List<Map<String, String>> upcoming,
-            List<Map<String, String>> previous) {
-        try {
-            Element script = doc.selectFirst("script[id=__NEXT_DATA__]");
-            if (script == null)
-                return false;
-
-            String jsonContent = script.html();
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            Map<String, Object> nextData = mapper.readValue(jsonContent, Map.class);
-
-            // Navigate: props -> pageProps -> data -> tabsData -> [actionType]
-            Map<String, Object> props = (Map<String, Object>) nextData.get("props");
-            if (props == null)
-                return false;
+    private CorporateAction toAction(String ticker, String actionType, Map<String, String> row,
+            java.time.LocalDate date) throws com.fasterxml.jackson.core.JsonProcessingException {
+        CorporateAction action = new CorporateAction();
+        action.setTicker(ticker);
+        action.setActionType(actionType);
+        action.setSource(CorporateActionService.SOURCE_MONEYCONTROL);
+        action.setExDate(date);
+        action.setFields(objectMapper.writeValueAsString(row));
+        return action;
+    }
 
-            Map<String, Object> pageProps = (Map<String, Object>) props.get("pageProps");
-            if (pageProps == null)
-                return false;
+    // Moneycontrol table date formats can vary: "25-07-2024", "25 Jul 2024", etc.
+    private static final List<java.time.format.DateTimeFormatter> HTML_TABLE_DATE_FORMATS = List.of(
+            java.time.format.DateTimeFormatter.ofPattern("dd-MM-yyyy", Locale.ENGLISH),
+            java.time.format.DateTimeFormatter.ofPattern("d MMM yyyy", Locale.ENGLISH));
 
-            Map<String, Object> data = (Map<String, Object>) pageProps.get("data");
-            if (data == null)
-                return false;
+    // Formats seen in JSON: "25 Apr, 2025", "14 Aug, 2025"
+    private static final java.time.format.DateTimeFormatter NEXT_DATA_DATE_FORMAT = java.time.format.DateTimeFormatter
+            .ofPattern("d MMM, yyyy", Locale.ENGLISH);
 
-            Map<String, Object> tabsData = (Map<String, Object>) data.get("tabsData");
-            if (tabsData == null)
+    private boolean parseNextJsData(Document doc, String ticker, String actionType, List<CorporateAction> out) {
+        try {
+            Element script = doc.selectFirst("script[id=__NEXT_DATA__]");
+            if (script == null)
                 return false;
 
-            List<Map<String, Object>> actions = (List<Map<String, Object>>) tabsData.get(actionType);
+            List<com.example.screen.data.fetcher.dto.NextDataAction> actions = NextDataParser
+                    .readTabsData(objectMapper, script.html(), actionType);
             if (actions == null || actions.isEmpty())
                 return false;
 
             log.info("Found {} items in JSON for {}", actions.size(), actionType);
 
-            Date today = new Date();
-            // Formats seen in JSON: "25 Apr, 2025", "14 Aug, 2025"
-            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd MMM, yyyy");
-
-            for (Map<String, Object> act : actions) {
+            for (com.example.screen.data.fetcher.dto.NextDataAction act : actions) {
                 Map<String, String> row = new LinkedHashMap<>(); // Use LinkedHashMap for order
 
                 // Common fields
-                String announcement = toStringSafe(act.get("disp_announce_date"));
-                if (announcement.isEmpty())
-                    announcement = toStringSafe(act.get("announcement_date"));
-                if (announcement.isEmpty())
-                    announcement = toStringSafe(act.get("announce_date"));
+                String announcement = firstNonEmpty(act.dispAnnounceDate(), act.announcementDate(),
+                        act.announceDate());
                 row.put("Announcement", announcement);
 
+                // Date that decides upcoming vs previous, picked once per row
+                String dateStr = announcement;
+
                 // Map fields based on action type
                 if ("dividends".equals(actionType)) {
-                    // JSON keys: announce_date, dividend_type, dividend_per, effective_date,
-                    // remarks, dividend_amount
-                    row.put("Ex-Date", toStringSafe(act.get("effective_date")));
-                    row.put("Type", toStringSafe(act.get("dividend_type")));
-                    row.put("Dividend(Rs)", toStringSafe(act.get("dividend_amount"))); // Requested Column
-                    row.put("Dividend %", toStringSafe(act.get("dividend_per")));
-                    row.put("Remarks", toStringSafe(act.get("remarks")));
+                    dateStr = toStringSafe(act.effectiveDate());
+                    row.put("Ex-Date", dateStr);
+                    row.put("Type", toStringSafe(act.dividendType()));
+                    row.put("Dividend(Rs)", toStringSafe(act.dividendAmount())); // Requested Column
+                    row.put("Dividend %", toStringSafe(act.dividendPer()));
+                    row.put("Remarks", toStringSafe(act.remarks()));
 
                 } else if ("bonus".equals(actionType)) {
-                    // JSON keys: announce_date, ratio, effective_date, remarks
                     // For Bonus, Moneycontrol uses "exbonus_date" or "effective_date"
-                    String exDate = toStringSafe(act.get("exbonus_date"));
-                    if (exDate.isEmpty())
-                        exDate = toStringSafe(act.get("effective_date"));
-                    row.put("Ex-Date", exDate);
-
-                    // Ratio might be in "bonus_ratio" (e.g., "1:2") or constructed from
-                    // existing/offered
-                    String ratio = toStringSafe(act.get("bonus_ratio"));
-                    if (ratio.isEmpty())
-                        ratio = toStringSafe(act.get("ratio"));
-                    row.put("Ratio", ratio);
-                    row.put("Remarks", toStringSafe(act.get("remarks")));
+                    dateStr = firstNonEmpty(act.exbonusDate(), act.effectiveDate());
+                    row.put("Ex-Date", dateStr);
+                    // Ratio might be in "bonus_ratio" (e.g., "1:2") or "ratio"
+                    row.put("Ratio", firstNonEmpty(act.bonusRatio(), act.ratio()));
+                    row.put("Remarks", toStringSafe(act.remarks()));
 
                 } else if ("splits".equals(actionType)) {
-                    // JSON keys: announce_date, old_fv, new_fv, effective_date
                     // For Splits, Moneycontrol uses "exsplit_date"
-                    String splitDate = toStringSafe(act.get("exsplit_date"));
-                    if (splitDate.isEmpty())
-                        splitDate = toStringSafe(act.get("effective_date"));
-                    row.put("Split Date", splitDate);
-
-                    row.put("Old FV", toStringSafe(act.get("old_fv")));
-                    row.put("New FV", toStringSafe(act.get("new_fv")));
+                    dateStr = firstNonEmpty(act.exsplitDate(), act.effectiveDate());
+                    row.put("Split Date", dateStr);
+                    row.put("Old FV", toStringSafe(act.oldFv()));
+                    row.put("New FV", toStringSafe(act.newFv()));
 
                 } else if ("rights".equals(actionType)) {
-                    // Rights often use 'effective_date' or 'exrights_date' (need to verify, but
-                    // effective_date is common fallback)
-                    row.put("Ex-Date", toStringSafe(act.get("effective_date")));
-                    row.put("Ratio", toStringSafe(act.get("ratio")));
-                    row.put("Premium", toStringSafe(act.get("premium")));
-                }
-
-                // Determine if upcoming
-                String dateStr = row.containsKey("Ex-Date") ? row.get("Ex-Date") : row.get("Announcement");
-                if ("splits".equals(actionType)) {
-                    dateStr = row.get("Split Date");
+                    // Rights often use 'effective_date' (exrights_date not seen so far)
+                    dateStr = toStringSafe(act.effectiveDate());
+                    row.put("Ex-Date", dateStr);
+                    row.put("Ratio", toStringSafe(act.ratio()));
+                    row.put("Premium", toStringSafe(act.premium()));
                 }
 
-                boolean isUpcoming = false;
-                if (dateStr != null && !dateStr.isEmpty()) {
-                    try {
-                        Date d = sdf.parse(dateStr);
-                        if (d.after(today)) {
-                            isUpcoming = true;
-                        }
-                    } catch (Exception e) {
-                        // ignore
-                    }
-                }
-
-                if (isUpcoming) {
-                    upcoming.add(row);
-                } else {
-                    previous.add(row);
-                }
+                out.add(toAction(ticker, actionType, row, parseNextDataDate(dateStr)));
             }
 
             return true;
@@ -245,6 +229,24 @@ public class MoneyControlService {
         }
     }
 
+    static java.time.LocalDate parseNextDataDate(String dateStr) {
+        if (dateStr == null || dateStr.isEmpty())
+            return null;
+        try {
+            return java.time.LocalDate.parse(dateStr, NEXT_DATA_DATE_FORMAT);
+        } catch (java.time.format.DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private String firstNonEmpty(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isEmpty())
+                return value;
+        }
+        return "";
+    }
+
     @Autowired
     private com.example.screen.data.fetcher.repository.BrokerResearchRepository brokerResearchRepository;
 
@@ -254,12 +256,27 @@ public class MoneyControlService {
     @Autowired
     private LlmService llmService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PdfExtractionService pdfExtractionService;
+
+    @Autowired
+    private QuoteService quoteService;
+
     // Remove unused constant if preferred, or keep for reference
     // private static final String BROKER_RESEARCH_API =
     // "https://api.moneycontrol.com/mcapi/v1/stock/broker-research?scId=%s&page=1";
-    private static final String PRICE_API = "https://priceapi.moneycontrol.com/pricefeed/nse/equitycash/%s";
-
     public String getBrokerReportSummary(String ticker, String reportLink) {
+        return getBrokerReportSummary(ticker, reportLink, CancellationToken.NONE);
+    }
+
+    /**
+     * Summarize a broker report, aborting the PDF download or pending LLM call when
+     * the token is cancelled. A summary that did come back is still saved.
+     */
+    public String getBrokerReportSummary(String ticker, String reportLink, CancellationToken token) {
         try {
             if (reportLink == null || reportLink.isEmpty())
                 return "No report link provided.";
@@ -267,24 +284,19 @@ public class MoneyControlService {
             // Check if summary already exists in DB
             List<com.example.screen.data.fetcher.entity.BrokerResearch> existing = brokerResearchRepository
                     .findByReportLink(reportLink);
-            if (!existing.isEmpty()) {
-                // Return the first one that has a summary, UNLESS it's an error message
-                for (com.example.screen.data.fetcher.entity.BrokerResearch br : existing) {
-                    String sm = br.getSummary();
-                    if (sm != null && !sm.isEmpty() && !sm.startsWith("Error generating summary")
-                            && !sm.startsWith("LLM API Key is missing")) {
-                        log.info("Returning cached summary for {}", ticker);
-                        return sm;
-                    }
-                }
+            String cached = usableSummary(existing);
+            if (cached != null) {
+                log.info("Returning cached summary for {}", ticker);
+                return cached;
             }
 
             // Not found, generate logic
-            String text = extractTextFromPdf(reportLink);
+            String text = pdfExtractionService.extractText(reportLink, token);
+            token.throwIfCancelled();
             if (text == null || text.trim().isEmpty())
                 return "Could not extract text from PDF.";
 
-            String summary = llmService.summarizePdfContent(ticker, text);
+            String summary = llmService.summarizePdfContent(ticker, text, token);
 
             // Save to DB
             if (!existing.isEmpty()) {
@@ -297,33 +309,45 @@ public class MoneyControlService {
             }
 
             return summary;
+        } catch (CancellationException e) {
+            log.info("Summary generation for {} cancelled", ticker);
+            throw e;
         } catch (Exception e) {
             log.error("Error generating summary for {}", ticker, e);
             return "Error generating summary: " + e.getMessage();
         }
     }
 
-    private String extractTextFromPdf(String pdfUrl) {
-        try {
-            // Check if it's a PDF
-            if (!pdfUrl.toLowerCase().endsWith(".pdf")) {
-                // Could be a viewer link, but let's assume direct PDF for now as seen in API
-                // response
-                log.warn("Link does not look like a PDF: {}", pdfUrl);
-                // Try anyway or return null? Moneycontrol usually gives direct PDF.
-            }
-
-            java.net.URL url = new java.net.URL(pdfUrl);
-            try (java.io.InputStream is = url.openStream();
-                    org.apache.pdfbox.pdmodel.PDDocument document = org.apache.pdfbox.pdmodel.PDDocument.load(is)) {
+    /**
+     * @param reportLink Report PDF link
+     * @return Stored summary for the report, or null if none (error messages do not
+     *         count)
+     */
+    public String getCachedBrokerReportSummary(String reportLink) {
+        return usableSummary(brokerResearchRepository.findByReportLink(reportLink));
+    }
 
-                org.apache.pdfbox.text.PDFTextStripper stripper = new org.apache.pdfbox.text.PDFTextStripper();
-                return stripper.getText(document);
+    private String usableSummary(List<com.example.screen.data.fetcher.entity.BrokerResearch> reports) {
+        // Return the first one that has a summary, UNLESS it's an error message
+        for (com.example.screen.data.fetcher.entity.BrokerResearch br : reports) {
+            String sm = br.getSummary();
+            if (sm != null && !sm.isEmpty() && !isSummaryError(sm)) {
+                return sm;
             }
-        } catch (Exception e) {
-            log.error("Failed to extract text from PDF: {}", pdfUrl, e);
-            return null;
         }
+        return null;
+    }
+
+    /**
+     * getBrokerReportSummary reports failures as text rather than throwing;
+     * these are the messages it (and LlmService.summarizePdfContent) can return.
+     */
+    public static boolean isSummaryError(String summary) {
+        return summary.startsWith("Error generating summary")
+                || summary.startsWith("LLM API Key is missing")
+                || summary.startsWith("Quota Limit Exhausted")
+                || summary.startsWith("Could not extract text from PDF")
+                || summary.startsWith("No report link provided");
     }
 
     public Map<String, Object> getBrokerResearch(String ticker, boolean forceRefresh) {
@@ -361,7 +385,7 @@ public class MoneyControlService {
                 .findByTicker(ticker);
 
         // Calculate upside
-        double currentPrice = getCurrentPrice(ticker);
+        double currentPrice = quoteService.getPrice(ticker);
 
         List<Map<String, Object>> formattedReports = new ArrayList<>();
         for (com.example.screen.data.fetcher.entity.BrokerResearch r : reports) {
@@ -400,155 +424,144 @@ public class MoneyControlService {
         if (scId == null)
             throw new IOException("Could not find SC_ID for " + ticker);
 
-        // Preserve existing summaries
-        List<com.example.screen.data.fetcher.entity.BrokerResearch> existingRecords = brokerResearchRepository
-                .findByTicker(ticker);
-        Map<String, String> summaryCache = new HashMap<>();
-        for (com.example.screen.data.fetcher.entity.BrokerResearch br : existingRecords) {
-            if (br.getReportLink() != null && br.getSummary() != null) {
-                summaryCache.put(br.getReportLink(), br.getSummary());
-            }
+        // Pages are independent, so request them together and consume them in order
+        List<Future<JsonNode>> pages = new ArrayList<>();
+        for (int page = 1; page <= BROKER_RESEARCH_MAX_PAGES; page++) {
+            final int pageNo = page;
+            pages.add(brokerResearchExecutor.submit(() -> fetchBrokerResearchPage(scId, pageNo)));
         }
 
-        List<com.example.screen.data.fetcher.entity.BrokerResearch> allEntities = new ArrayList<>();
-        com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-
-        // Fetch up to 5 pages
-        for (int page = 1; page <= 5; page++) {
-            try {
-                // Adding limit=50 to try and fetch more per page
-                String baseUrl = "https://api.moneycontrol.com/mcapi/v1/stock/broker-research?scId=" + scId + "&page="
-                        + page + "&limit=50";
-
-                String jsonResponse = Jsoup.connect(baseUrl)
-                        .ignoreContentType(true)
-                        .header("User-Agent", "Mozilla/5.0")
-                        .execute()
-                        .body();
-
-                com.fasterxml.jackson.databind.JsonNode root = mapper.readTree(jsonResponse);
-
-                if (root.has("data") && root.get("data").has("broker_research_data")) {
-                    com.fasterxml.jackson.databind.JsonNode list = root.get("data").get("broker_research_data");
-                    if (list.isArray() && list.size() > 0) {
-                        for (com.fasterxml.jackson.databind.JsonNode node : list) {
-                            com.example.screen.data.fetcher.entity.BrokerResearch br = new com.example.screen.data.fetcher.entity.BrokerResearch();
-                            br.setTicker(ticker);
-                            br.setOrganization(node.path("organization").asText(null));
-                            br.setReco(node.path("recommend_flag").asText(null));
-                            br.setTargetPrice(node.path("target").asText(null));
-                            br.setRecommendedPrice(node.path("recommended_price").asText(null));
-
-                            String link = node.path("attachment").asText(null);
-                            br.setReportLink(link);
-
-                            // Restore summary if exists
-                            if (link != null && summaryCache.containsKey(link)) {
-                                br.setSummary(summaryCache.get(link));
-                            }
-
-                            br.setRecoDate(node.path("recommend_date").asText(null));
-                            br.setFetchedAt(java.time.LocalDateTime.now());
-                            allEntities.add(br);
-                        }
-                    } else {
-                        // Empty list means no more data
-                        break;
-                    }
-                } else {
-                    break;
+        List<JsonNode> rows = new ArrayList<>();
+        for (int i = 0; i < pages.size(); i++) {
+            JsonNode list = awaitBrokerResearchPage(ticker, i + 1, pages.get(i));
+            if (list == null || !list.isArray() || list.size() == 0) {
+                // Empty page (or error) means no more data; drop the pages after it
+                for (int j = i + 1; j < pages.size(); j++) {
+                    pages.get(j).cancel(true);
                 }
-            } catch (Exception e) {
-                log.warn("Error fetching page {} for ticker {}: {}", page, ticker, e.getMessage());
-                break; // Stop fetching on error
+                break;
             }
+            list.forEach(rows::add);
         }
 
-        if (!allEntities.isEmpty()) {
-            log.info("Fetched {} broker research reports for {}", allEntities.size(), ticker);
-            deleteAndSave(ticker, allEntities);
+        if (!rows.isEmpty()) {
+            log.info("Fetched {} broker research reports for {}", rows.size(), ticker);
+            upsertBrokerResearch(ticker, rows);
         }
     }
 
-    @org.springframework.transaction.annotation.Transactional
-    protected void deleteAndSave(String ticker, List<com.example.screen.data.fetcher.entity.BrokerResearch> entities) {
-        brokerResearchRepository.deleteByTicker(ticker);
-        brokerResearchRepository.saveAll(entities);
-    }
+    private JsonNode fetchBrokerResearchPage(String scId, int page) throws IOException {
+        // Adding limit=50 to try and fetch more per page
+        String baseUrl = "https://api.moneycontrol.com/mcapi/v1/stock/broker-research?scId=" + scId + "&page="
+                + page + "&limit=50";
 
-    private String getScId(String ticker) {
-        try {
-            String url = String.format(AUTOSUGGEST_URL, ticker);
-            String jsonResponse = Jsoup.connect(url)
-                    .ignoreContentType(true)
-                    .header("User-Agent", "Mozilla/5.0")
-                    .execute()
-                    .body();
-
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            com.fasterxml.jackson.databind.JsonNode root = mapper.readTree(jsonResponse);
-
-            if (root.isArray() && root.size() > 0) {
-                com.fasterxml.jackson.databind.JsonNode first = root.get(0);
-                if (first.has("sc_id")) {
-                    return first.get("sc_id").asText();
-                }
-            }
-
-            // Fallback to URL parsing if sc_id is missing (unlikely for stocks)
-            String companyUrl = getCompanyUrl(ticker);
-            if (companyUrl != null) {
-                String[] parts = companyUrl.split("/");
-                return parts[parts.length - 1];
-            }
+        String jsonResponse = Jsoup.connect(baseUrl)
+                .ignoreContentType(true)
+                .header("User-Agent", "Mozilla/5.0")
+                .execute()
+                .body();
 
-        } catch (Exception e) {
-            log.error("Error finding scId for {}", ticker, e);
+        JsonNode root = objectMapper.readTree(jsonResponse);
+        if (root.has("data") && root.get("data").has("broker_research_data")) {
+            return root.get("data").get("broker_research_data");
         }
         return null;
     }
 
-    private double getCurrentPrice(String ticker) {
+    private JsonNode awaitBrokerResearchPage(String ticker, int page, Future<JsonNode> future) {
         try {
-            String scId = getScId(ticker);
-            if (scId == null)
-                return 0;
-            String url = String.format(PRICE_API, scId);
-            String json = Jsoup.connect(url).ignoreContentType(true).execute().body();
-            com.fasterxml.jackson.databind.JsonNode node = new com.fasterxml.jackson.databind.ObjectMapper()
-                    .readTree(json);
-            if (node.has("data") && node.get("data").has("pricecurrent")) {
-                return node.get("data").get("pricecurrent").asDouble();
+            return future.get(ACTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Timed out fetching page {} for ticker {}", page, ticker);
+        } catch (ExecutionException e) {
+            log.warn("Error fetching page {} for ticker {}: {}", page, ticker, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Insert new reports and update changed ones, keyed by report link. Unchanged
+     * rows (and their summaries) are left alone, so a refresh only writes the delta.
+     */
+    private void upsertBrokerResearch(String ticker, List<JsonNode> rows) {
+        Map<String, com.example.screen.data.fetcher.entity.BrokerResearch> existingByKey = new HashMap<>();
+        for (com.example.screen.data.fetcher.entity.BrokerResearch br : brokerResearchRepository.findByTicker(ticker)) {
+            existingByKey.putIfAbsent(reportKey(br), br);
+        }
+
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+        Map<String, com.example.screen.data.fetcher.entity.BrokerResearch> changed = new LinkedHashMap<>();
+        int inserted = 0;
+        for (JsonNode node : rows) {
+            com.example.screen.data.fetcher.entity.BrokerResearch incoming = new com.example.screen.data.fetcher.entity.BrokerResearch();
+            incoming.setTicker(ticker);
+            incoming.setOrganization(node.path("organization").asText(null));
+            incoming.setReco(node.path("recommend_flag").asText(null));
+            incoming.setTargetPrice(node.path("target").asText(null));
+            incoming.setRecommendedPrice(node.path("recommended_price").asText(null));
+            incoming.setReportLink(node.path("attachment").asText(null));
+            incoming.setRecoDate(node.path("recommend_date").asText(null));
+            incoming.setFetchedAt(now);
+
+            String key = reportKey(incoming);
+            if (changed.containsKey(key)) {
+                continue; // Same report listed on two pages
             }
-        } catch (Exception e) {
-            log.error("Error fetching current price for {}", ticker, e);
+            com.example.screen.data.fetcher.entity.BrokerResearch existing = existingByKey.get(key);
+            if (existing == null) {
+                changed.put(key, incoming);
+                inserted++;
+            } else if (!sameReport(existing, incoming)) {
+                existing.setOrganization(incoming.getOrganization());
+                existing.setReco(incoming.getReco());
+                existing.setTargetPrice(incoming.getTargetPrice());
+                existing.setRecommendedPrice(incoming.getRecommendedPrice());
+                existing.setRecoDate(incoming.getRecoDate());
+                existing.setFetchedAt(now);
+                changed.put(key, existing);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            // saveAll runs in one transaction; new rows go out as JDBC batches
+            brokerResearchRepository.saveAll(changed.values());
         }
-        return 0;
+        log.info("Broker research upsert for {}: {} inserted, {} updated", ticker, inserted,
+                changed.size() - inserted);
     }
 
-    private String getCompanyUrl(String ticker) throws IOException {
-        String url = String.format(AUTOSUGGEST_URL, ticker);
-        String jsonResponse = Jsoup.connect(url)
-                .ignoreContentType(true)
-                .header("User-Agent", "Mozilla/5.0")
-                .execute()
-                .body();
+    private String reportKey(com.example.screen.data.fetcher.entity.BrokerResearch br) {
+        if (br.getReportLink() != null) {
+            return br.getReportLink();
+        }
+        // Reports without an attachment fall back to broker + date
+        return br.getOrganization() + "|" + br.getRecoDate() + "|" + br.getTargetPrice();
+    }
 
-        int linkSrcIndex = jsonResponse.indexOf("\"link_src\":\"");
-        if (linkSrcIndex == -1)
-            return null;
+    private boolean sameReport(com.example.screen.data.fetcher.entity.BrokerResearch a,
+            com.example.screen.data.fetcher.entity.BrokerResearch b) {
+        return Objects.equals(a.getOrganization(), b.getOrganization())
+                && Objects.equals(a.getReco(), b.getReco())
+                && Objects.equals(a.getTargetPrice(), b.getTargetPrice())
+                && Objects.equals(a.getRecommendedPrice(), b.getRecommendedPrice())
+                && Objects.equals(a.getRecoDate(), b.getRecoDate());
+    }
 
-        int start = linkSrcIndex + 12;
-        int end = jsonResponse.indexOf("\"", start);
-        return jsonResponse.substring(start, end).replace("\\/", "/");
+    private String getScId(String ticker) {
+        com.example.screen.data.fetcher.entity.MoneyControlSymbol symbol = symbolService.resolve(ticker);
+        return symbol != null ? symbol.getScId() : null;
     }
 
     private String toStringSafe(Object obj) {
         return obj == null ? "" : String.valueOf(obj);
     }
 
-    private void parseHtmlTable(Document doc, List<Map<String, String>> upcoming, List<Map<String, String>> previous,
-            String actionType) {
+    private void parseHtmlTable(Document doc, String ticker, List<CorporateAction> out, String actionType)
+            throws com.fasterxml.jackson.core.JsonProcessingException {
         // Moneycontrol tables often have class "mctable1" or are inside "fr_data_div"
         // Sometimes they are just generic tables.
 
@@ -568,14 +581,14 @@ public class MoneyControlService {
 
         if (!tables.isEmpty()) {
             Element table = tables.first();
-            parseTable(table, upcoming, previous, actionType);
+            parseTable(table, ticker, out, actionType);
         } else {
             log.warn("No suitable table found for {} (HTML fallback)", actionType);
         }
     }
 
-    private void parseTable(Element table, List<Map<String, String>> upcoming, List<Map<String, String>> previous,
-            String actionType) {
+    private void parseTable(Element table, String ticker, List<CorporateAction> out, String actionType)
+            throws com.fasterxml.jackson.core.JsonProcessingException {
         Elements rows = table.select("tr");
         if (rows.isEmpty())
             return;
@@ -595,19 +608,12 @@ public class MoneyControlService {
         log.debug("Found headers: {}", headers);
 
         // Parse data
-        Date today = new Date();
-        // Moneycontrol date formats can vary: "25-07-2024", "25 Jul 2024", etc.
-        // We will try a few formats
-        List<java.text.SimpleDateFormat> dateFormats = new ArrayList<>();
-        dateFormats.add(new java.text.SimpleDateFormat("dd-MM-yyyy"));
-        dateFormats.add(new java.text.SimpleDateFormat("dd MMM yyyy"));
-
         for (int i = 1; i < rows.size(); i++) {
             Elements tds = rows.get(i).select("td");
             if (tds.size() != headers.size())
                 continue;
 
-            Map<String, String> rowData = new HashMap<>();
+            Map<String, String> rowData = new LinkedHashMap<>();
             String dateStr = "";
 
             for (int j = 0; j < headers.size(); j++) {
@@ -629,27 +635,20 @@ public class MoneyControlService {
                 }
             }
 
-            // Categorize
-            boolean isUpcoming = false;
-            if (!dateStr.isEmpty()) {
-                for (java.text.SimpleDateFormat sdf : dateFormats) {
-                    try {
-                        Date date = sdf.parse(dateStr);
-                        if (date.after(today)) {
-                            isUpcoming = true;
-                        }
-                        break; // Successfully parsed
-                    } catch (Exception e) {
-                        // ignore and try next format
-                    }
-                }
-            }
+            out.add(toAction(ticker, actionType, rowData, parseHtmlTableDate(dateStr)));
+        }
+    }
 
-            if (isUpcoming) {
-                upcoming.add(rowData);
-            } else {
-                previous.add(rowData);
+    private java.time.LocalDate parseHtmlTableDate(String dateStr) {
+        if (dateStr.isEmpty())
+            return null;
+        for (java.time.format.DateTimeFormatter format : HTML_TABLE_DATE_FORMATS) {
+            try {
+                return java.time.LocalDate.parse(dateStr, format);
+            } catch (java.time.format.DateTimeParseException e) {
+                // ignore and try next format
             }
         }
+        return null;
     }
 }
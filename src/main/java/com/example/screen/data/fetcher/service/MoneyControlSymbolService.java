@@ -0,0 +1,111 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.entity.MoneyControlSymbol;
+import com.example.screen.data.fetcher.repository.MoneyControlSymbolRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves a ticker to its Moneycontrol slug, ID, sc_id and company URL with a
+ * single autosuggest call, and persists the mapping so every Moneycontrol code
+ * path (corporate actions, broker research, prices) shares it.
+ */
+@Service
+@Slf4j
+public class MoneyControlSymbolService {
+
+    private static final String AUTOSUGGEST_URL = "https://www.moneycontrol.com/mccode/common/autosuggestion_solr.php?classic=true&query=%s&type=1&format=json";
+
+    // Example:
+    // https://www.moneycontrol.com/india/stockpricequote/computers-software/tataconsultancyservices/TCS
+    private static final Pattern URL_PATTERN = Pattern
+            .compile("moneycontrol\\.com/india/stockpricequote/[^/]+/([^/]+)/([^/]+)");
+
+    @Autowired
+    private MoneyControlSymbolRepository symbolRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Symbols almost never change, so keep them for a long time
+    @Value("${moneycontrol.symbol-ttl-days:90}")
+    private long symbolTtlDays;
+
+    /**
+     * @param ticker Stock ticker
+     * @return Resolved symbol, or null if Moneycontrol does not know the ticker
+     */
+    public MoneyControlSymbol resolve(String ticker) {
+        MoneyControlSymbol cached = symbolRepository.findById(ticker).orElse(null);
+        if (cached != null && cached.getResolvedAt() != null
+                && cached.getResolvedAt().isAfter(LocalDateTime.now().minusDays(symbolTtlDays))) {
+            return cached;
+        }
+
+        try {
+            MoneyControlSymbol fresh = lookup(ticker);
+            if (fresh != null) {
+                symbolRepository.save(fresh);
+                return fresh;
+            }
+        } catch (Exception e) {
+            log.error("Error resolving Moneycontrol symbol for {}", ticker, e);
+        }
+        // Prefer a stale mapping over none when the lookup fails
+        return cached;
+    }
+
+    private MoneyControlSymbol lookup(String ticker) throws Exception {
+        String url = String.format(AUTOSUGGEST_URL, ticker);
+        String jsonResponse = Jsoup.connect(url)
+                .ignoreContentType(true)
+                .header("User-Agent", "Mozilla/5.0")
+                .execute()
+                .body();
+
+        JsonNode root = objectMapper.readTree(jsonResponse);
+        if (!root.isArray() || root.size() == 0) {
+            return null;
+        }
+
+        // We take the first suggestion, as the previous lookups did
+        JsonNode first = root.get(0);
+        MoneyControlSymbol symbol = new MoneyControlSymbol();
+        symbol.setTicker(ticker);
+
+        String linkSrc = first.path("link_src").asText(null);
+        if (linkSrc != null) {
+            symbol.setCompanyUrl(linkSrc);
+            Matcher matcher = URL_PATTERN.matcher(linkSrc);
+            if (matcher.find()) {
+                symbol.setSlug(matcher.group(1));
+                symbol.setMcId(matcher.group(2));
+            }
+        }
+
+        String scId = first.path("sc_id").asText(null);
+        if (scId == null && linkSrc != null) {
+            // Fallback to URL parsing if sc_id is missing (unlikely for stocks)
+            String[] parts = linkSrc.split("/");
+            scId = parts[parts.length - 1];
+        }
+        symbol.setScId(scId);
+
+        if (symbol.getSlug() == null && symbol.getScId() == null) {
+            return null;
+        }
+        symbol.setResolvedAt(LocalDateTime.now());
+        log.info("Resolved Moneycontrol symbol for {}: Slug={}, ID={}, scId={}", ticker, symbol.getSlug(),
+                symbol.getMcId(), symbol.getScId());
+        return symbol;
+    }
+}
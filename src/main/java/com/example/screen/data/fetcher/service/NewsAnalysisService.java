@@ -1,12 +1,23 @@
 package com.example.screen.data.fetcher.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 @Slf4j
@@ -21,13 +32,43 @@ public class NewsAnalysisService {
     @Autowired
     private CacheService cacheService;
 
+    @Autowired
+    private NewsSearchIndexService newsSearchIndexService;
+
+    @Autowired
+    private NewsScoreService newsScoreService;
+
     private static final long CACHE_EXPIRY_MS = 3L * 24 * 60 * 60 * 1000; // 3 Days
 
+    @Value("${news-analysis.threads:4}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
     public Map<String, Object> analyzeStockNews(String ticker) {
         return analyzeStockNews(ticker, false);
     }
 
     public Map<String, Object> analyzeStockNews(String ticker, boolean refresh) {
+        return analyzeStockNews(ticker, refresh, CancellationToken.NONE);
+    }
+
+    /**
+     * Run the analysis, stopping at the next stage boundary once the token is
+     * cancelled. News already fetched per entity stays cached by NewsService, so
+     * a retry only pays for the stages that never finished.
+     */
+    public Map<String, Object> analyzeStockNews(String ticker, boolean refresh, CancellationToken token) {
         String cacheKey = "news_analysis_" + ticker;
 
         if (refresh) {
@@ -47,10 +88,44 @@ public class NewsAnalysisService {
         }
 
         Map<String, Object> result = new HashMap<>();
+        Map<String, List<Map<String, String>>> aggregatedNews = new java.util.LinkedHashMap<>();
+        try {
+            return analyze(ticker, refresh, token, cacheKey, result, aggregatedNews);
+        } catch (CancellationException e) {
+            log.info("News analysis for {} cancelled; news for {} entities already cached", ticker,
+                    aggregatedNews.size());
+            throw e;
+        }
+    }
 
-        // 1. Get Related Entities (Dynamic Discovery)
+    /**
+     * Stages run as soon as their inputs are ready: the ticker's own news is
+     * fetched while the LLM finds related entities, and the impact summary and
+     * news scoring (both only need the news) run side by side.
+     */
+    private Map<String, Object> analyze(String ticker, boolean refresh, CancellationToken token, String cacheKey,
+            Map<String, Object> result, Map<String, List<Map<String, String>>> aggregatedNews) {
+        // Queries NewsService left out on timeout or error, so the result is not cached for long
+        Set<String> incomplete = ConcurrentHashMap.newKeySet();
+
+        // 1. Get Related Entities (Dynamic Discovery), and the ticker's news meanwhile
         log.info("Fetching related entities for {}", ticker);
-        List<String> relatedEntities = llmService.getRelatedEntities(ticker);
+        CompletableFuture<List<String>> entitiesFuture = CompletableFuture
+                .supplyAsync(() -> llmService.getRelatedEntities(ticker, token), executor);
+        CompletableFuture<Map<String, List<Map<String, String>>>> tickerNewsFuture = CompletableFuture
+                .supplyAsync(() -> newsService.fetchNews(List.of(ticker), refresh, incomplete), executor);
+
+        // 2. Fetch News for the other entities at once, as soon as they are known
+        CompletableFuture<Map<String, List<Map<String, String>>>> entityNewsFuture = entitiesFuture
+                .thenApplyAsync(entities -> {
+                    token.throwIfCancelled();
+                    List<String> others = new ArrayList<>(entities);
+                    others.remove(ticker);
+                    log.info("Fetching news for entities: {}", others);
+                    return newsService.fetchNews(others, refresh, incomplete);
+                }, executor);
+
+        List<String> relatedEntities = new ArrayList<>(await(entitiesFuture));
 
         // Always include the main ticker
         if (!relatedEntities.contains(ticker)) {
@@ -58,39 +133,41 @@ public class NewsAnalysisService {
         }
 
         result.put("relatedEntities", relatedEntities);
+        newsSearchIndexService.setRelatedEntities(ticker, relatedEntities);
 
-        // 2. Fetch News for all entities
-        Map<String, List<Map<String, String>>> aggregatedNews = new HashMap<>();
+        // Results keep the entity order
+        Map<String, List<Map<String, String>>> tickerNews = await(tickerNewsFuture);
+        Map<String, List<Map<String, String>>> entityNews = await(entityNewsFuture);
         for (String entity : relatedEntities) {
-            log.info("Fetching news for entity: {}", entity);
-            List<Map<String, String>> news = newsService.fetchNews(entity, refresh);
-            if (!news.isEmpty()) {
+            List<Map<String, String>> news = entity.equals(ticker) ? tickerNews.get(entity) : entityNews.get(entity);
+            if (news != null) {
                 aggregatedNews.put(entity, news);
             }
         }
+        token.throwIfCancelled();
 
         result.put("news", aggregatedNews);
 
         // 3. Summarize and Analyze Impact (RAG)
         log.info("Generating summary for {}", ticker);
-        String summary = llmService.summarizeImpact(ticker, aggregatedNews);
+        CompletableFuture<String> summaryFuture = CompletableFuture
+                .supplyAsync(() -> llmService.summarizeImpact(ticker, aggregatedNews, token), executor);
+
+        // 4. Score News Items (New Feature), alongside the summary
+        CompletableFuture<List<Map<String, Object>>> scoredFuture = CompletableFuture.supplyAsync(() -> {
+            // Per-entity lists are newest first; merge them, scoring each shared article once
+            List<Map<String, String>> allNews = NewsArticleService.mergeNewestFirst(aggregatedNews.values());
 
-        // 4. Score News Items (New Feature)
-        List<Map<String, String>> allNews = new java.util.ArrayList<>();
-        aggregatedNews.values().forEach(allNews::addAll);
+            // Only headlines never scored for this ticker go to the LLM
+            List<Map<String, Object>> scored = newsScoreService.score(ticker, allNews, token);
 
-        List<Map<String, Object>> scoredNews = llmService.filterAndScoreNews(ticker, allNews);
+            // Sort scored news by date (newest first)
+            NewsArticleService.sortNewestFirst(scored);
+            return scored;
+        }, executor);
 
-        // Sort scored news by date (newest first)
-        scoredNews.sort((n1, n2) -> {
-            String d1 = (String) n1.get("pubDate");
-            String d2 = (String) n2.get("pubDate");
-            if (d1 == null)
-                return 1;
-            if (d2 == null)
-                return -1;
-            return parseDate(d2).compareTo(parseDate(d1));
-        });
+        String summary = await(summaryFuture);
+        List<Map<String, Object>> scoredNews = await(scoredFuture);
 
         Map<String, Object> aiAnalysis = new HashMap<>();
         aiAnalysis.put("summary", summary);
@@ -99,17 +176,26 @@ public class NewsAnalysisService {
         result.put("aiAnalysis", aiAnalysis);
         result.put("fetchedAt", java.time.LocalDateTime.now().toString());
 
-        // Cache the result
-        cacheService.put(cacheKey, result, CACHE_EXPIRY_MS);
+        // Cache the result; briefly if some entities' news is missing, so the next request fetches it
+        if (incomplete.isEmpty()) {
+            cacheService.put(cacheKey, result, CACHE_EXPIRY_MS);
+        } else {
+            result.put("partial", true);
+            cacheService.put(cacheKey, result, NewsService.PARTIAL_CACHE_EXPIRY_MS);
+        }
 
         return result;
     }
 
-    private java.time.ZonedDateTime parseDate(String dateStr) {
+    // Rethrow what the stage threw, so cancellation still surfaces as CancellationException
+    private static <T> T await(CompletableFuture<T> future) {
         try {
-            return java.time.ZonedDateTime.parse(dateStr, java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME);
-        } catch (Exception e) {
-            return java.time.ZonedDateTime.now().minusYears(10);
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
 }
@@ -0,0 +1,305 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.dto.NewsItem;
+import com.example.screen.data.fetcher.entity.NewsArticle;
+import com.example.screen.data.fetcher.entity.NewsArticleQuery;
+import com.example.screen.data.fetcher.repository.NewsArticleQueryRepository;
+import com.example.screen.data.fetcher.repository.NewsArticleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Shared store of news articles across all queries. Regions and related
+ * entities return many of the same articles, so each is kept once (with its
+ * publish time already parsed) and queries refer to it by id.
+ */
+@Service
+@Slf4j
+public class NewsArticleService {
+
+    public static final Comparator<NewsArticle> NEWEST_FIRST = Comparator
+            .comparingLong(NewsArticle::getPublishedAt).reversed();
+
+    @Autowired
+    private NewsArticleRepository newsArticleRepository;
+
+    @Autowired
+    private NewsArticleQueryRepository newsArticleQueryRepository;
+
+    @Autowired
+    private NewsSearchIndexService newsSearchIndexService;
+
+    /**
+     * Store articles not seen before, remember that the query returned them and
+     * add both to the search index.
+     *
+     * @param query Query the feed was fetched for
+     * @param items Feed items, in feed order
+     * @return Stored articles in the same order, without duplicates
+     */
+    public List<NewsArticle> store(String query, List<NewsItem> items) {
+        Map<String, NewsItem> byId = new LinkedHashMap<>();
+        for (NewsItem item : items) {
+            if (item.link() != null && !item.link().isEmpty()) {
+                byId.putIfAbsent(articleId(item.link()), item);
+            }
+        }
+
+        List<NewsArticle> articles = new ArrayList<>(byId.size());
+        List<NewsArticle> fresh = new ArrayList<>();
+        Map<String, NewsArticle> known = load(byId.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, NewsItem> entry : byId.entrySet()) {
+            NewsArticle existing = known.get(entry.getKey());
+            if (existing != null) {
+                articles.add(existing);
+                continue;
+            }
+            NewsItem item = entry.getValue();
+            NewsArticle article = new NewsArticle();
+            article.setId(entry.getKey());
+            article.setTitle(item.title());
+            article.setLink(item.link());
+            article.setSource(item.source());
+            article.setPubDate(item.pubDate());
+            article.setPublishedAt(parsePublishedAt(item.pubDate()));
+            article.setFirstSeenAt(now);
+            fresh.add(article);
+            articles.add(article);
+        }
+        List<NewsArticle> raced = insertAll(newsArticleRepository, fresh);
+        if (!raced.isEmpty()) {
+            // Stored by a concurrent feed in the meantime; answer with its copy
+            Map<String, NewsArticle> stored = load(raced.stream().map(NewsArticle::getId).toList());
+            articles.replaceAll(article -> stored.getOrDefault(article.getId(), article));
+        }
+        storeQuery(NewsSearchIndexService.normalizeQuery(query), byId.keySet(), now);
+        newsSearchIndexService.add(query, articles);
+        log.debug("Stored {} new of {} news articles", fresh.size() - raced.size(), byId.size());
+        return articles;
+    }
+
+    private void storeQuery(String query, Collection<String> articleIds, LocalDateTime now) {
+        Map<String, String> linkIds = new LinkedHashMap<>();
+        for (String articleId : articleIds) {
+            linkIds.put(articleId + "|" + query, articleId);
+        }
+        for (NewsArticleQuery known : newsArticleQueryRepository.findAllById(linkIds.keySet())) {
+            linkIds.remove(known.getId());
+        }
+        List<NewsArticleQuery> links = new ArrayList<>(linkIds.size());
+        linkIds.forEach((id, articleId) -> {
+            NewsArticleQuery link = new NewsArticleQuery();
+            link.setId(id);
+            link.setArticleId(articleId);
+            link.setQuery(query);
+            link.setFirstSeenAt(now);
+            links.add(link);
+        });
+        insertAll(newsArticleQueryRepository, links);
+    }
+
+    /**
+     * Insert rows with assigned ids that were not found a moment ago. The
+     * entities are new to save(), so it inserts without reading first. Another
+     * request may insert the same ids in between; then the batch fails on the
+     * primary key, is retried one row at a time, and the rows the other request
+     * stored are skipped and left as it wrote them.
+     *
+     * @return Rows that were not inserted because they already existed
+     */
+    private <T> List<T> insertAll(JpaRepository<T, String> repository, List<T> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        try {
+            repository.saveAll(rows);
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Concurrent insert of news rows, retrying one by one: {}", e.getMessage());
+        }
+        List<T> existing = new ArrayList<>();
+        for (T row : rows) {
+            try {
+                repository.save(row);
+            } catch (DataIntegrityViolationException e) {
+                existing.add(row);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * @param ids Article ids
+     * @return Articles in the order of {@code ids}; unknown ids are skipped
+     */
+    public List<NewsArticle> get(List<String> ids) {
+        Map<String, NewsArticle> byId = load(ids);
+        List<NewsArticle> articles = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            NewsArticle article = byId.get(id);
+            if (article != null) {
+                articles.add(article);
+            }
+        }
+        return articles;
+    }
+
+    private Map<String, NewsArticle> load(Iterable<String> ids) {
+        Map<String, NewsArticle> byId = new HashMap<>();
+        for (NewsArticle article : newsArticleRepository.findAllById(ids)) {
+            byId.put(article.getId(), article);
+        }
+        return byId;
+    }
+
+    /**
+     * @return The news item map callers and the UI use (publishedAt as a string,
+     *         like the other fields)
+     */
+    public static Map<String, String> toNewsItem(NewsArticle article) {
+        Map<String, String> newsItem = new HashMap<>();
+        newsItem.put("id", article.getId());
+        newsItem.put("title", article.getTitle());
+        newsItem.put("link", article.getLink());
+        newsItem.put("pubDate", article.getPubDate());
+        newsItem.put("publishedAt", String.valueOf(article.getPublishedAt()));
+        newsItem.put("source", article.getSource());
+        return newsItem;
+    }
+
+    /**
+     * SHA-256 of the link without query string or fragment (Google News adds
+     * tracking parameters such as {@code ?oc=5}), host lowercased.
+     */
+    public static String articleId(String link) {
+        String normalized = link.trim();
+        try {
+            URI uri = URI.create(normalized);
+            if (uri.getHost() != null) {
+                String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+                if (path.length() > 1 && path.endsWith("/")) {
+                    path = path.substring(0, path.length() - 1);
+                }
+                normalized = uri.getHost().toLowerCase(Locale.ROOT) + path;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a URI; hash it as is
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Publish time of a news item map, from the epoch millis NewsService puts on
+     * each item. Items cached before that carry only pubDate, which is parsed.
+     */
+    public static long publishedAt(Map<String, ?> item) {
+        Object value = item.get("publishedAt");
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && !text.isEmpty()) {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                // Fall back to pubDate
+            }
+        }
+        Object pubDate = item.get("pubDate");
+        return pubDate instanceof String text ? parsePublishedAt(text) : 0;
+    }
+
+    /**
+     * Sort news items newest first, reading each item's time once rather than on
+     * every comparison. Stable, so items with the same time keep their order.
+     */
+    public static <T extends Map<String, ?>> void sortNewestFirst(List<T> items) {
+        record Keyed<T>(long key, T item) {
+        }
+        List<Keyed<T>> keyed = new ArrayList<>(items.size());
+        for (T item : items) {
+            keyed.add(new Keyed<>(publishedAt(item), item));
+        }
+        keyed.sort((a, b) -> Long.compare(b.key(), a.key()));
+        for (int i = 0; i < keyed.size(); i++) {
+            items.set(i, keyed.get(i).item());
+        }
+    }
+
+    /**
+     * Merge lists that are each sorted newest first into one, dropping repeated
+     * article ids. Ties go to the earlier list, so the result is deterministic.
+     */
+    public static List<Map<String, String>> mergeNewestFirst(Collection<List<Map<String, String>>> sortedLists) {
+        record Head(long key, int list, int index) {
+        }
+        List<List<Map<String, String>>> lists = new ArrayList<>(sortedLists);
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> a.key() != b.key() ? Long.compare(b.key(), a.key())
+                : Integer.compare(a.list(), b.list()));
+        int total = 0;
+        for (int i = 0; i < lists.size(); i++) {
+            total += lists.get(i).size();
+            if (!lists.get(i).isEmpty()) {
+                heads.add(new Head(publishedAt(lists.get(i).get(0)), i, 0));
+            }
+        }
+
+        List<Map<String, String>> merged = new ArrayList<>(total);
+        Set<String> seenIds = new HashSet<>();
+        while (!heads.isEmpty()) {
+            Head head = heads.poll();
+            List<Map<String, String>> list = lists.get(head.list());
+            Map<String, String> item = list.get(head.index());
+            String id = item.get("id");
+            if (id == null || seenIds.add(id)) {
+                merged.add(item);
+            }
+            int next = head.index() + 1;
+            if (next < list.size()) {
+                heads.add(new Head(publishedAt(list.get(next)), head.list(), next));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @return Epoch millis of an RFC 1123 date, or 0 if it cannot be parsed
+     */
+    public static long parsePublishedAt(String pubDate) {
+        if (pubDate == null || pubDate.isEmpty()) {
+            return 0;
+        }
+        try {
+            return ZonedDateTime.parse(pubDate, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.entity.TickerMetadata;
+import com.example.screen.data.fetcher.repository.TickerMetadataRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps news warm for a watchlist so /news-analysis and /geo-analysis rarely
+ * wait on Google News. The watchlist is the configured tickers plus any ticker
+ * opened in either tab within the last few days. Each run refreshes every
+ * ticker's own query, its LLM-discovered related entities and its geo regions
+ * (both taken from the last cached analysis). Tickers go one at a time with
+ * random jitter in between, and each ticker's queries go through the batched
+ * NewsService fetch, so they share its per-host cap with interactive requests.
+ * <p>
+ * Metric {@code news.ingestion.lag} is the age of the stalest watchlist
+ * ticker's news, in seconds; a ticker never ingested counts from when it
+ * joined the watchlist.
+ */
+@Service
+@Slf4j
+public class NewsIngestionService {
+
+    // Don't write the metadata row on every tab open
+    private static final long TRACK_WRITE_INTERVAL_MINUTES = 60;
+
+    @Autowired
+    private NewsService newsService;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private TickerMetadataRepository tickerMetadataRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${news.ingestion.enabled:true}")
+    private boolean enabled;
+
+    @Value("${news.ingestion.watchlist:}")
+    private List<String> configuredTickers;
+
+    // Tickers opened interactively stay on the watchlist this long
+    @Value("${news.ingestion.track-days:7}")
+    private long trackDays;
+
+    @Value("${news.ingestion.jitter-ms:5000}")
+    private long jitterMs;
+
+    private Timer runTimer;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Map<String, Long> lastIngestedAt = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastTrackedAt = new ConcurrentHashMap<>();
+    // When each ticker joined the watchlist, so one never ingested still counts as lag
+    private final Map<String, Long> watchlistSince = new ConcurrentHashMap<>();
+    private volatile Set<String> watchlist = Set.of();
+
+    @PostConstruct
+    void init() {
+        runTimer = meterRegistry.timer("news.ingestion.run");
+        Gauge.builder("news.ingestion.lag", this, NewsIngestionService::lagSeconds)
+                .description("Age of the stalest watchlist ticker's news")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("news.ingestion.watchlist.size", this, service -> service.watchlist.size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Put a ticker on the watchlist after a user opened its news or geo tab.
+     */
+    public void track(String ticker) {
+        long now = System.currentTimeMillis();
+        Long last = lastTrackedAt.get(ticker);
+        if (last != null && now - last < TimeUnit.MINUTES.toMillis(TRACK_WRITE_INTERVAL_MINUTES)) {
+            return;
+        }
+        lastTrackedAt.put(ticker, now);
+        try {
+            TickerMetadata metadata = tickerMetadataRepository.findById(ticker).orElseGet(() -> {
+                TickerMetadata created = new TickerMetadata();
+                created.setTicker(ticker);
+                return created;
+            });
+            metadata.setLastNewsRequest(LocalDateTime.now());
+            tickerMetadataRepository.save(metadata);
+        } catch (Exception e) {
+            log.warn("Could not record news request for {}: {}", ticker, e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${news.ingestion.initial-delay-ms:120000}", fixedDelayString = "${news.ingestion.interval-ms:1800000}")
+    public void ingest() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            runTimer.record(this::ingestWatchlist);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void ingestWatchlist() {
+        Set<String> tickers = new LinkedHashSet<>();
+        for (String ticker : configuredTickers) {
+            if (!ticker.isBlank()) {
+                tickers.add(ticker.trim().toUpperCase());
+            }
+        }
+        for (TickerMetadata metadata : tickerMetadataRepository
+                .findByLastNewsRequestAfter(LocalDateTime.now().minusDays(trackDays))) {
+            tickers.add(metadata.getTicker());
+        }
+        long now = System.currentTimeMillis();
+        for (String ticker : tickers) {
+            watchlistSince.putIfAbsent(ticker, now);
+        }
+        watchlistSince.keySet().retainAll(tickers);
+        watchlist = Set.copyOf(tickers);
+        lastIngestedAt.keySet().retainAll(tickers);
+        log.info("Refreshing news for {} watchlist tickers", tickers.size());
+
+        for (String ticker : tickers) {
+            try {
+                // Spread requests out instead of bursting the whole watchlist at once
+                if (jitterMs > 0) {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(jitterMs));
+                }
+                ingestTicker(ticker);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("News ingestion failed for {}", ticker, e);
+            }
+        }
+    }
+
+    private void ingestTicker(String ticker) {
+        Set<String> incomplete = new HashSet<>();
+        Map<String, List<Map<String, String>>> news = newsService.fetchNews(queriesFor(ticker), true, incomplete);
+        if (!incomplete.isEmpty()) {
+            log.warn("News ingestion queries failed for {}: {}", ticker, incomplete);
+        }
+        if (!news.isEmpty()) {
+            lastIngestedAt.put(ticker, System.currentTimeMillis());
+        }
+    }
+
+    // Same queries the two tabs issue, so their cache entries are the ones warmed
+    @SuppressWarnings("unchecked")
+    private Set<String> queriesFor(String ticker) {
+        Set<String> queries = new LinkedHashSet<>();
+        queries.add(ticker);
+
+        Map<String, Object> analysis = cacheService.get("news_analysis_" + ticker,
+                new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
+                });
+        if (analysis != null && analysis.get("relatedEntities") instanceof List<?> entities) {
+            for (Object entity : entities) {
+                queries.add(String.valueOf(entity));
+            }
+        }
+
+        Map<String, Object> geo = cacheService.get("GEO_ANALYSIS_" + ticker,
+                new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
+                });
+        if (geo != null && geo.get("news") instanceof Map<?, ?> regions) {
+            for (Object region : regions.keySet()) {
+                queries.add(ticker + " " + region);
+            }
+        }
+        return queries;
+    }
+
+    private double lagSeconds() {
+        long now = System.currentTimeMillis();
+        long oldest = now;
+        for (String ticker : watchlist) {
+            // Tickers not ingested yet are as stale as the time they have been waiting
+            Long since = lastIngestedAt.getOrDefault(ticker, watchlistSince.get(ticker));
+            if (since != null) {
+                oldest = Math.min(oldest, since);
+            }
+        }
+        return (now - oldest) / 1000.0;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.entity.NewsScore;
+import com.example.screen.data.fetcher.repository.NewsScoreRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scores news for a ticker incrementally: scores from earlier runs are reused
+ * and only articles never scored for the ticker go to the LLM.
+ */
+@Service
+@Slf4j
+public class NewsScoreService {
+
+    @Autowired
+    private NewsScoreRepository newsScoreRepository;
+
+    @Autowired
+    private LlmService llmService;
+
+    /**
+     * @param newsItems News items with their article id
+     * @return Relevant items with "score" and "reason", highest score first
+     */
+    public List<Map<String, Object>> score(String ticker, List<Map<String, String>> newsItems,
+            CancellationToken token) {
+        Map<String, Map<String, String>> byScoreId = new LinkedHashMap<>();
+        List<Map<String, String>> unscored = new ArrayList<>();
+        for (Map<String, String> item : newsItems) {
+            String articleId = item.get("id");
+            if (articleId == null) {
+                // Cached before articles had ids; can't be remembered, always scored
+                unscored.add(item);
+            } else {
+                byScoreId.putIfAbsent(scoreId(ticker, articleId), item);
+            }
+        }
+
+        List<Map<String, Object>> scored = new ArrayList<>();
+        Map<String, NewsScore> known = new HashMap<>();
+        for (NewsScore score : newsScoreRepository.findAllById(byScoreId.keySet())) {
+            known.put(score.getId(), score);
+        }
+        byScoreId.forEach((id, item) -> {
+            NewsScore score = known.get(id);
+            if (score == null) {
+                unscored.add(item);
+            } else if (score.isRelevant()) {
+                Map<String, Object> reused = new HashMap<>(item);
+                reused.put("score", score.getScore());
+                reused.put("reason", score.getReason());
+                scored.add(reused);
+            }
+        });
+
+        log.info("Scoring {} new of {} news items for {}", unscored.size(), newsItems.size(), ticker);
+        if (!unscored.isEmpty()) {
+            List<Map<String, Object>> fresh = llmService.scoreNews(ticker, unscored, token);
+            if (fresh != null) {
+                remember(ticker, unscored, fresh);
+                scored.addAll(fresh);
+            }
+        }
+
+        scored.sort((a, b) -> ((Integer) b.get("score")).compareTo((Integer) a.get("score")));
+        return scored;
+    }
+
+    // Everything sent is stored, so items the model judged irrelevant aren't sent again either
+    private void remember(String ticker, List<Map<String, String>> sent, List<Map<String, Object>> fresh) {
+        Map<String, Map<String, Object>> freshById = new HashMap<>();
+        for (Map<String, Object> item : fresh) {
+            if (item.get("id") instanceof String articleId) {
+                freshById.put(articleId, item);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<NewsScore> scores = new ArrayList<>();
+        for (Map<String, String> item : sent) {
+            String articleId = item.get("id");
+            if (articleId == null) {
+                continue;
+            }
+            NewsScore score = new NewsScore();
+            score.setId(scoreId(ticker, articleId));
+            score.setTicker(ticker);
+            score.setArticleId(articleId);
+            score.setScoredAt(now);
+            Map<String, Object> result = freshById.get(articleId);
+            if (result != null) {
+                score.setRelevant(true);
+                score.setScore((Integer) result.get("score"));
+                score.setReason(truncate((String) result.get("reason")));
+            }
+            scores.add(score);
+        }
+        try {
+            newsScoreRepository.saveAll(scores);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request scored some of the same articles; keep its scores
+            log.warn("News scores for {} stored concurrently, saving one by one: {}", ticker, e.getMessage());
+            for (NewsScore score : scores) {
+                try {
+                    newsScoreRepository.save(score);
+                } catch (DataIntegrityViolationException duplicate) {
+                    log.debug("News score {} already stored", score.getId());
+                }
+            }
+        }
+    }
+
+    private static String scoreId(String ticker, String articleId) {
+        return ticker + "|" + articleId;
+    }
+
+    private static String truncate(String reason) {
+        return reason != null && reason.length() > 1000 ? reason.substring(0, 1000) : reason;
+    }
+}
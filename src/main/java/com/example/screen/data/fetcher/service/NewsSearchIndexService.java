@@ -0,0 +1,353 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.entity.CacheData;
+import com.example.screen.data.fetcher.entity.NewsArticle;
+import com.example.screen.data.fetcher.entity.NewsArticleQuery;
+import com.example.screen.data.fetcher.repository.CacheDataRepository;
+import com.example.screen.data.fetcher.repository.NewsArticleQueryRepository;
+import com.example.screen.data.fetcher.repository.NewsArticleRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index over every stored headline and source, so stored
+ * news can be searched without going back to Google News. It is filled from
+ * the news_article tables at startup and updated by NewsArticleService as
+ * feeds are ingested. A ticker filter matches the articles fetched for the
+ * ticker itself, its geo regions ("TCS Europe") and its related entities.
+ */
+@Service
+@Slf4j
+public class NewsSearchIndexService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private static final String NEWS_IDS_PREFIX = "NEWS_IDS_";
+    private static final String NEWS_ANALYSIS_PREFIX = "news_analysis_";
+    private static final String GEO_ANALYSIS_PREFIX = "GEO_ANALYSIS_";
+
+    @Autowired
+    private NewsArticleRepository newsArticleRepository;
+
+    @Autowired
+    private NewsArticleQueryRepository newsArticleQueryRepository;
+
+    @Autowired
+    private CacheDataRepository cacheDataRepository;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Sets are concurrent, so searches read while ingestion adds
+    private final Map<String, NewsArticle> articles = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byTerm = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byQuery = new ConcurrentHashMap<>();
+
+    // Ticker (lowercased) -> related entity queries, from the last news analysis
+    private final Map<String, List<String>> relatedEntities = new ConcurrentHashMap<>();
+
+    // Ticker (lowercased) -> regions its geo analysis fetched news for
+    private final Map<String, List<String>> geoRegions = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStored() {
+        if (newsArticleQueryRepository.count() == 0) {
+            seedQueriesFromCache();
+        }
+        for (NewsArticle article : newsArticleRepository.findAll()) {
+            indexArticle(article);
+        }
+        for (NewsArticleQuery link : newsArticleQueryRepository.findAll()) {
+            byQuery.computeIfAbsent(link.getQuery(), q -> ConcurrentHashMap.newKeySet()).add(link.getArticleId());
+        }
+        log.info("News search index loaded: {} articles, {} terms, {} queries", articles.size(), byTerm.size(),
+                byQuery.size());
+    }
+
+    /**
+     * Index articles a query just returned. Articles already indexed only gain
+     * the query.
+     */
+    public void add(String query, List<NewsArticle> fetched) {
+        Set<String> ids = byQuery.computeIfAbsent(normalizeQuery(query), q -> ConcurrentHashMap.newKeySet());
+        for (NewsArticle article : fetched) {
+            if (!articles.containsKey(article.getId())) {
+                indexArticle(article);
+            }
+            ids.add(article.getId());
+        }
+    }
+
+    /**
+     * Remember a ticker's related entities, so its filter covers their news too.
+     */
+    public void setRelatedEntities(String ticker, List<String> entities) {
+        relatedEntities.put(ticker.toLowerCase(Locale.ROOT), List.copyOf(entities));
+    }
+
+    /**
+     * Remember the regions a ticker's geo analysis fetched news for, so its
+     * filter covers the "<ticker> <region>" queries.
+     */
+    public void setGeoRegions(String ticker, Collection<String> regions) {
+        geoRegions.put(ticker.toLowerCase(Locale.ROOT), List.copyOf(regions));
+    }
+
+    /**
+     * @param text    Words that must all appear in the headline or source; blank for any
+     * @param tickers Only articles fetched for one of these tickers; empty for all
+     * @param limit   Maximum articles returned
+     * @return Matching articles, newest first
+     */
+    public List<NewsArticle> search(String text, Collection<String> tickers, int limit) {
+        List<Set<String>> filters = new ArrayList<>();
+        for (String term : tokenize(text)) {
+            Set<String> ids = byTerm.get(term);
+            if (ids == null) {
+                return List.of();
+            }
+            filters.add(ids);
+        }
+        if (tickers != null && !tickers.isEmpty()) {
+            filters.add(idsForTickers(tickers));
+        }
+
+        Collection<String> candidates;
+        if (filters.isEmpty()) {
+            candidates = articles.keySet();
+        } else {
+            // Intersect starting from the rarest term
+            filters.sort(Comparator.comparingInt(Set::size));
+            Set<String> matched = new HashSet<>(filters.get(0));
+            for (int i = 1; i < filters.size() && !matched.isEmpty(); i++) {
+                matched.retainAll(filters.get(i));
+            }
+            candidates = matched;
+        }
+
+        List<NewsArticle> result = new ArrayList<>(candidates.size());
+        for (String id : candidates) {
+            NewsArticle article = articles.get(id);
+            if (article != null) {
+                result.add(article);
+            }
+        }
+        result.sort(NewsArticleService.NEWEST_FIRST);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private Set<String> idsForTickers(Collection<String> tickers) {
+        Set<String> ids = new HashSet<>();
+        for (String ticker : tickers) {
+            String key = normalizeQuery(ticker);
+            if (key.isEmpty()) {
+                continue;
+            }
+            addQuery(ids, key);
+            // Only this ticker's own regions: a prefix match would pull in "tata motors" for TATA.
+            // Nothing is remembered when no analysis is cached yet, so a later one is still picked up.
+            List<String> regions = geoRegions.computeIfAbsent(key, t -> cachedGeoRegions(ticker));
+            for (String region : regions != null ? regions : List.<String>of()) {
+                addQuery(ids, normalizeQuery(ticker + " " + region));
+            }
+            List<String> entities = relatedEntities.computeIfAbsent(key, t -> cachedRelatedEntities(ticker));
+            for (String entity : entities != null ? entities : List.<String>of()) {
+                addQuery(ids, normalizeQuery(entity));
+            }
+        }
+        return ids;
+    }
+
+    private void addQuery(Set<String> ids, String query) {
+        Set<String> queryIds = byQuery.get(query);
+        if (queryIds != null) {
+            ids.addAll(queryIds);
+        }
+    }
+
+    /**
+     * @return The entities of the ticker's cached news analysis, or null when there is none
+     */
+    private List<String> cachedRelatedEntities(String ticker) {
+        Map<String, Object> analysis = cachedAnalysis(NEWS_ANALYSIS_PREFIX, ticker);
+        if (analysis == null || !(analysis.get("relatedEntities") instanceof List<?> list)) {
+            return null;
+        }
+        List<String> entities = new ArrayList<>();
+        for (Object entity : list) {
+            entities.add(String.valueOf(entity));
+        }
+        return entities;
+    }
+
+    /**
+     * @return The regions of the ticker's cached geo analysis, or null when there is none
+     */
+    private List<String> cachedGeoRegions(String ticker) {
+        Map<String, Object> analysis = cachedAnalysis(GEO_ANALYSIS_PREFIX, ticker);
+        if (analysis == null || !(analysis.get("news") instanceof Map<?, ?> news)) {
+            return null;
+        }
+        List<String> regions = new ArrayList<>();
+        for (Object region : news.keySet()) {
+            regions.add(String.valueOf(region));
+        }
+        return regions;
+    }
+
+    /**
+     * Analyses are cached under the ticker as it was requested, which is
+     * usually upper case, so both spellings are tried.
+     */
+    private Map<String, Object> cachedAnalysis(String prefix, String ticker) {
+        TypeReference<Map<String, Object>> type = new TypeReference<>() {
+        };
+        Map<String, Object> analysis = cacheService.get(prefix + ticker, type);
+        String upper = ticker.toUpperCase(Locale.ROOT);
+        if (analysis == null && !upper.equals(ticker)) {
+            analysis = cacheService.get(prefix + upper, type);
+        }
+        return analysis;
+    }
+
+    private void indexArticle(NewsArticle article) {
+        articles.put(article.getId(), article);
+        Set<String> terms = new LinkedHashSet<>(tokenize(article.getTitle()));
+        terms.addAll(tokenize(article.getSource()));
+        for (String term : terms) {
+            byTerm.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(article.getId());
+        }
+    }
+
+    // Articles stored before queries were recorded: recover the links from the per-query id lists
+    private void seedQueriesFromCache() {
+        Map<String, String> knownQueries = knownQueriesByCacheKey();
+        // By id: two cache keys can normalize to the same query, and links are inserted, not merged
+        Map<String, NewsArticleQuery> links = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        int skipped = 0;
+        for (CacheData entry : cacheDataRepository.findByKeyStartingWith(NEWS_IDS_PREFIX)) {
+            // NewsService keys on the lowercased query with spaces replaced, which loses real underscores
+            String query = knownQueries.get(entry.getKey());
+            if (query == null) {
+                String suffix = entry.getKey().substring(NEWS_IDS_PREFIX.length());
+                if (suffix.indexOf('_') >= 0) {
+                    skipped++;
+                    continue;
+                }
+                query = normalizeQuery(suffix);
+            }
+            try {
+                for (String articleId : objectMapper.readValue(entry.getValue(), new TypeReference<List<String>>() {
+                })) {
+                    NewsArticleQuery link = new NewsArticleQuery();
+                    link.setId(articleId + "|" + query);
+                    link.setArticleId(articleId);
+                    link.setQuery(query);
+                    link.setFirstSeenAt(now);
+                    links.putIfAbsent(link.getId(), link);
+                }
+            } catch (Exception e) {
+                log.warn("Skipping unreadable cache entry {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        if (!links.isEmpty()) {
+            newsArticleQueryRepository.saveAll(links.values());
+            log.info("Recovered {} news query links from the cache", links.size());
+        }
+        if (skipped > 0) {
+            log.info("Skipped {} cached news queries that could not be told apart from their cache key", skipped);
+        }
+    }
+
+    /**
+     * Queries the cached analyses issued (tickers, related entities and geo
+     * regions), by the NewsService cache key they were stored under.
+     */
+    private Map<String, String> knownQueriesByCacheKey() {
+        Set<String> queries = new HashSet<>();
+        for (CacheData entry : cacheDataRepository.findByKeyStartingWith(NEWS_ANALYSIS_PREFIX)) {
+            queries.add(entry.getKey().substring(NEWS_ANALYSIS_PREFIX.length()));
+            Map<String, Object> analysis = readMap(entry);
+            if (analysis != null && analysis.get("relatedEntities") instanceof List<?> entities) {
+                for (Object entity : entities) {
+                    queries.add(String.valueOf(entity));
+                }
+            }
+        }
+        for (CacheData entry : cacheDataRepository.findByKeyStartingWith(GEO_ANALYSIS_PREFIX)) {
+            String ticker = entry.getKey().substring(GEO_ANALYSIS_PREFIX.length());
+            queries.add(ticker);
+            Map<String, Object> analysis = readMap(entry);
+            if (analysis != null && analysis.get("news") instanceof Map<?, ?> news) {
+                for (Object region : news.keySet()) {
+                    queries.add(ticker + " " + region);
+                }
+            }
+        }
+
+        Map<String, String> byCacheKey = new HashMap<>();
+        for (String query : queries) {
+            byCacheKey.put(NewsService.cacheKey(query), normalizeQuery(query));
+        }
+        return byCacheKey;
+    }
+
+    private Map<String, Object> readMap(CacheData entry) {
+        try {
+            return objectMapper.readValue(entry.getValue(), new TypeReference<Map<String, Object>>() {
+            });
+        } catch (Exception e) {
+            log.warn("Skipping unreadable cache entry {}: {}", entry.getKey(), e.getMessage());
+            return null;
+        }
+    }
+
+    public static String normalizeQuery(String query) {
+        return query == null ? "" : query.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Lowercased runs of letters and digits, e.g. "Q3 order-win" -> q3, order, win.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else if (term.length() > 0) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        return terms;
+    }
+}
@@ -1,85 +1,389 @@
 package com.example.screen.data.fetcher.service;
 
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import com.example.screen.data.fetcher.dto.NewsItem;
+import com.example.screen.data.fetcher.entity.NewsArticle;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
 public class NewsService {
 
+    private static final String NEWS_HOST = "news.google.com";
+    private static final int FETCH_TIMEOUT_MS = 10_000;
+    private static final int MAX_ITEMS = 5; // News items kept per query
+    private static final int MAX_FEED_ITEMS = 100; // Google News never returns more per search
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+
     @Autowired
     private CacheService cacheService;
 
+    @Autowired
+    private NewsArticleService newsArticleService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private static final long CACHE_EXPIRY_MS = 2L * 24 * 60 * 60 * 1000; // 2 days
 
+    // For results built from a fetch that left queries out, so they are retried soon
+    public static final long PARTIAL_CACHE_EXPIRY_MS = 15L * 60 * 1000; // 15 minutes
+
+    @Value("${news.threads:8}")
+    private int threads;
+
+    // Concurrent requests per upstream host, across all callers
+    @Value("${news.max-per-host:4}")
+    private int maxPerHost;
+
+    // A refresh within this window reuses the cached query (typically warmed by NewsIngestionService)
+    @Value("${news.refresh-min-age-ms:900000}")
+    private long refreshMinAgeMs;
+
+    // Queries combined with OR into one upstream search; 1 fetches each query on its own
+    @Value("${news.batch-size:4}")
+    private int batchSize;
+
+    // Overall budget for a batch, combined request and fallbacks included; queries still running are left out
+    @Value("${news.batch-timeout-ms:15000}")
+    private long batchTimeoutMs;
+
+    private ExecutorService executor;
+
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Fetch news for several queries concurrently. Queries not cached that
+     * share no word with another one (entity names such as "Infosys",
+     * "Accenture") are combined, {@code batchSize} at a time, into one OR search
+     * and each item is assigned back to the query whose words its title
+     * contains. A query the combined feed can't fill that way is fetched on its
+     * own. Queries that do share words, like the geo queries "TCS Europe" and
+     * "TCS USA", are always fetched on their own: what tells them apart is the
+     * region, which headlines rarely name, so nearly all of them would fall
+     * back and cost a request more than fetching them singly.
+     * <p>
+     * Worst case per batch is one combined request plus one fallback request
+     * per query, and the fallbacks only start once the combined request is
+     * back, so a batch can take two request round trips. Fallbacks still running
+     * at the batch timeout are left out of the result but finish and cache.
+     * Upstream calls are counted in {@code news.upstream.requests} by mode:
+     * single, combined or fallback.
+     *
+     * @param queries Queries, in the order the caller wants them back
+     * @param refresh Bypass the cache
+     * @return News per query in input order; queries that failed, returned nothing
+     *         or missed the batch timeout are left out
+     */
+    public Map<String, List<Map<String, String>>> fetchNews(Collection<String> queries, boolean refresh) {
+        return fetchNews(queries, refresh, new HashSet<>());
+    }
+
+    /**
+     * @param incomplete Receives the queries that failed or missed the batch
+     *                   timeout, as opposed to those that found no news
+     * @see #fetchNews(Collection, boolean)
+     */
+    public Map<String, List<Map<String, String>>> fetchNews(Collection<String> queries, boolean refresh,
+            Set<String> incomplete) {
+        Map<String, CompletableFuture<List<Map<String, String>>>> pending = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String query : new LinkedHashSet<>(queries)) {
+            List<Map<String, String>> cached = cachedNews(query, refresh);
+            if (cached != null) {
+                pending.put(query, CompletableFuture.completedFuture(cached));
+            } else {
+                pending.put(query, null);
+                misses.add(query);
+            }
+        }
+
+        List<String> combinable = new ArrayList<>();
+        for (String query : misses) {
+            if (batchSize > 1 && isCombinable(query, misses)) {
+                combinable.add(query);
+            } else {
+                pending.put(query, CompletableFuture.supplyAsync(() -> fetchNews(query, false), executor));
+            }
+        }
+
+        int step = Math.max(1, batchSize);
+        for (int from = 0; from < combinable.size(); from += step) {
+            List<String> batch = combinable.subList(from, Math.min(combinable.size(), from + step));
+            if (batch.size() == 1) {
+                String query = batch.get(0);
+                pending.put(query, CompletableFuture.supplyAsync(() -> fetchNews(query, false), executor));
+            } else {
+                CompletableFuture<Map<String, List<Map<String, String>>>> combined = CompletableFuture
+                        .supplyAsync(() -> fetchCombined(batch), executor);
+                for (String query : batch) {
+                    pending.put(query, combined.thenCompose(attributed -> attributed.containsKey(query)
+                            ? CompletableFuture.completedFuture(attributed.get(query))
+                            : CompletableFuture.supplyAsync(() -> fetchNews(query, false, "fallback"),
+                                    executor)));
+                }
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMs);
+        Map<String, List<Map<String, String>>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<List<Map<String, String>>>> entry : pending.entrySet()) {
+            try {
+                List<Map<String, String>> news = entry.getValue().get(Math.max(0, deadline - System.nanoTime()),
+                        TimeUnit.NANOSECONDS);
+                if (!news.isEmpty()) {
+                    result.put(entry.getKey(), news);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (TimeoutException e) {
+                // Still runs to completion and caches, so the next request gets it
+                log.warn("News for {} missed the {} ms batch timeout", entry.getKey(), batchTimeoutMs);
+                incomplete.add(entry.getKey());
+            } catch (ExecutionException e) {
+                log.error("Error fetching news for {}: {}", entry.getKey(), e.getCause().getMessage());
+                incomplete.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
     public List<Map<String, String>> fetchNews(String query) {
         return fetchNews(query, false);
     }
 
+    /**
+     * @return News items (title, link, pubDate, publishedAt in epoch millis, source and the
+     *         shared article id), newest first
+     */
     public List<Map<String, String>> fetchNews(String query, boolean refresh) {
-        String cacheKey = "NEWS_" + query.toLowerCase().replace(" ", "_");
+        return fetchNews(query, refresh, "single");
+    }
+
+    // mode tags the upstream request metric
+    private List<Map<String, String>> fetchNews(String query, boolean refresh, String mode) {
+        List<Map<String, String>> cached = cachedNews(query, refresh);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Map<String, String>> newsList = new ArrayList<>();
+        try {
+            // Append "business" to context if not present, to get relevant news
+            List<NewsItem> items = search(singleSearch(query), MAX_ITEMS, mode);
+            newsList = storeAndCache(query, items);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Error fetching news for {}: {}", query, e.getMessage());
+        }
+        return newsList;
+    }
 
-        if (refresh) {
+    /**
+     * @return Cached news for the query, or null if there is none (or a refresh
+     *         asked to drop an entry older than the minimum refresh age)
+     */
+    private List<Map<String, String>> cachedNews(String query, boolean refresh) {
+        String cacheKey = cacheKey(query);
+        if (refresh && cacheService.isOlderThan(cacheKey, refreshMinAgeMs)) {
             cacheService.remove(cacheKey);
         }
 
-        List<Map<String, String>> cachedNews = cacheService.get(cacheKey,
-                new com.fasterxml.jackson.core.type.TypeReference<List<Map<String, String>>>() {
+        List<String> cachedIds = cacheService.get(cacheKey,
+                new com.fasterxml.jackson.core.type.TypeReference<List<String>>() {
                 });
+        if (cachedIds == null) {
+            return null;
+        }
+        log.info("Fetching news from cache for query: {}", query);
+        return toNewsItems(newsArticleService.get(cachedIds));
+    }
+
+    // Only article ids are cached per query; the articles live once in NewsArticleService
+    static String cacheKey(String query) {
+        return "NEWS_IDS_" + query.toLowerCase().replace(" ", "_");
+    }
+
+    private List<Map<String, String>> storeAndCache(String query, List<NewsItem> items) {
+        List<NewsArticle> articles = newsArticleService.store(query, items);
+        cacheService.put(cacheKey(query), articles.stream().map(NewsArticle::getId).toList(), CACHE_EXPIRY_MS);
+        return toNewsItems(articles);
+    }
+
+    // Append "business" to context if not present, to get relevant news
+    private static String singleSearch(String query) {
+        return query + " business";
+    }
 
-        if (cachedNews != null) {
-            log.info("Fetching news from cache for query: {}", query);
-            return cachedNews;
+    /**
+     * One OR search for the whole batch, each alternative being the search the
+     * query would make on its own. An item belongs to every query whose
+     * distinguishing words (those not shared by all queries in the batch, e.g.
+     * the region in "TCS Europe") all appear in its title. A query is answered
+     * only if it got {@link #MAX_ITEMS} items; a shorter list is never cached,
+     * the query is left out for the caller to fetch on its own.
+     *
+     * @return News for the queries the combined feed answered
+     */
+    private Map<String, List<Map<String, String>>> fetchCombined(List<String> batch) {
+        Map<String, List<String>> wordsByQuery = distinguishingWords(batch);
+        StringBuilder searchQuery = new StringBuilder();
+        for (String query : batch) {
+            if (searchQuery.length() > 0) {
+                searchQuery.append(" OR ");
+            }
+            searchQuery.append('(').append(singleSearch(query)).append(')');
         }
 
-        List<Map<String, String>> newsList = new ArrayList<>();
+        Map<String, List<Map<String, String>>> answered = new HashMap<>();
         try {
-            // Append "business" to context if not present, to get relevant news
-            String searchQuery = query + " business";
-
-            String rssUrl = "https://news.google.com/rss/search?q="
-                    + URLEncoder.encode(searchQuery, StandardCharsets.UTF_8)
-                    + "&hl=en-IN&gl=IN&ceid=IN:en";
-
-            log.debug("Fetching news from: {}", rssUrl);
-
-            Document doc = Jsoup.connect(rssUrl)
-                    .header("User-Agent",
-                            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                    .get();
-            Elements items = doc.select("item");
-
-            int count = 0;
-            for (Element item : items) {
-                if (count >= 5)
-                    break; // Limit to 5 news items per query
-                Map<String, String> newsItem = new HashMap<>();
-                newsItem.put("title", item.select("title").text());
-                newsItem.put("link", item.select("link").text());
-                newsItem.put("pubDate", item.select("pubDate").text());
-                newsItem.put("source", item.select("source").text());
-                newsList.add(newsItem);
-                count++;
-            }
+            int limit = Math.min(MAX_FEED_ITEMS, batch.size() * MAX_ITEMS * 4);
+            List<NewsItem> items = search(searchQuery.toString(), limit, "combined");
 
-            // Store in cache
-            cacheService.put(cacheKey, newsList, CACHE_EXPIRY_MS);
+            Map<String, List<NewsItem>> attributed = new LinkedHashMap<>();
+            for (NewsItem item : items) {
+                Set<String> titleWords = new HashSet<>(NewsSearchIndexService.tokenize(item.title()));
+                for (String query : batch) {
+                    List<String> words = wordsByQuery.get(query);
+                    if (!words.isEmpty() && titleWords.containsAll(words)) {
+                        attributed.computeIfAbsent(query, q -> new ArrayList<>()).add(item);
+                    }
+                }
+            }
 
+            for (String query : batch) {
+                List<NewsItem> queryItems = attributed.getOrDefault(query, List.of());
+                if (queryItems.size() >= MAX_ITEMS) {
+                    answered.put(query, storeAndCache(query, queryItems.subList(0, MAX_ITEMS)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
-            log.error("Error fetching news for {}: {}", query, e.getMessage());
+            log.error("Error fetching combined news for {}: {}", batch, e.getMessage());
+        }
+        log.debug("Combined news search answered {} of {} queries", answered.size(), batch.size());
+        return answered;
+    }
+
+    // Every word of the query is its own among the misses, so headlines naming it can be attributed
+    private static boolean isCombinable(String query, List<String> misses) {
+        Set<String> words = new HashSet<>(NewsSearchIndexService.tokenize(query));
+        if (words.isEmpty()) {
+            return false;
+        }
+        for (String other : misses) {
+            if (!other.equals(query) && !Collections.disjoint(words, NewsSearchIndexService.tokenize(other))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, List<String>> distinguishingWords(List<String> batch) {
+        Set<String> shared = null;
+        Map<String, List<String>> wordsByQuery = new HashMap<>();
+        for (String query : batch) {
+            List<String> words = NewsSearchIndexService.tokenize(query);
+            wordsByQuery.put(query, words);
+            if (shared == null) {
+                shared = new HashSet<>(words);
+            } else {
+                shared.retainAll(words);
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : wordsByQuery.entrySet()) {
+            List<String> words = new ArrayList<>(entry.getValue());
+            words.removeAll(shared);
+            entry.setValue(words);
+        }
+        return wordsByQuery;
+    }
+
+    private List<NewsItem> search(String searchQuery, int limit, String mode) throws Exception {
+        String rssUrl = "https://news.google.com/rss/search?q="
+                + URLEncoder.encode(searchQuery, StandardCharsets.UTF_8)
+                + "&hl=en-IN&gl=IN&ceid=IN:en";
+
+        log.debug("Fetching news from: {}", rssUrl);
+        meterRegistry.counter("news.upstream.requests", "mode", mode).increment();
+
+        Semaphore permits = hostPermits.computeIfAbsent(NEWS_HOST, host -> new Semaphore(maxPerHost));
+        permits.acquire();
+        try {
+            return readFeed(rssUrl, limit);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private List<Map<String, String>> toNewsItems(List<NewsArticle> articles) {
+        // Sorted here once, so callers can merge per-query lists instead of re-sorting
+        articles = new ArrayList<>(articles);
+        articles.sort(NewsArticleService.NEWEST_FIRST);
+        List<Map<String, String>> newsList = new ArrayList<>(articles.size());
+        for (NewsArticle article : articles) {
+            newsList.add(NewsArticleService.toNewsItem(article));
         }
         return newsList;
     }
+
+    /**
+     * Stream the feed and stop after {@code limit} items. The connection is
+     * dropped rather than drained, so the rest of the feed is never downloaded.
+     */
+    private List<NewsItem> readFeed(String rssUrl, int limit) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(rssUrl).openConnection();
+        connection.setConnectTimeout(FETCH_TIMEOUT_MS);
+        connection.setReadTimeout(FETCH_TIMEOUT_MS);
+        connection.setRequestProperty("User-Agent", USER_AGENT);
+        InputStream in = connection.getInputStream();
+        try {
+            return RssParser.readItems(in, limit);
+        } finally {
+            // Closes the socket; closing the stream first would drain the unread feed for keep-alive
+            connection.disconnect();
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.dto.NextDataAction;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for the __NEXT_DATA__ script on Moneycontrol company-facts
+ * pages. Skips straight to tabsData[actionType] without building the rest of
+ * the (large) document, and binds only those rows.
+ */
+public final class NextDataParser {
+
+    private static final String[] TABS_DATA_PATH = { "props", "pageProps", "data", "tabsData" };
+
+    private NextDataParser() {
+    }
+
+    /**
+     * @param mapper     Mapper used to bind rows
+     * @param json       Contents of the __NEXT_DATA__ script
+     * @param actionType Tab to read (dividends, bonus, splits, rights)
+     * @return Rows of the tab, or null if the path is not present
+     */
+    public static List<NextDataAction> readTabsData(ObjectMapper mapper, String json, String actionType)
+            throws IOException {
+        try (JsonParser parser = mapper.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            // Navigate: props -> pageProps -> data -> tabsData -> [actionType]
+            for (String field : TABS_DATA_PATH) {
+                if (!moveToField(parser, field) || parser.nextToken() != JsonToken.START_OBJECT) {
+                    return null;
+                }
+            }
+            if (!moveToField(parser, actionType) || parser.nextToken() != JsonToken.START_ARRAY) {
+                return null;
+            }
+
+            List<NextDataAction> actions = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                actions.add(mapper.readValue(parser, NextDataAction.class));
+            }
+            return actions;
+        }
+    }
+
+    // Advance within the current object to the named field, skipping the values of
+    // other fields without materializing them
+    private static boolean moveToField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (name.equals(parser.currentName())) {
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
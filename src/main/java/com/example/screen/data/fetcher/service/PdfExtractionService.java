@@ -0,0 +1,222 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.entity.PdfText;
+import com.example.screen.data.fetcher.repository.PdfTextRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts text from broker report PDFs with predictable memory per job.
+ * The PDF is streamed to a temp file (capped in bytes), PDFBox buffers through
+ * temp files beyond a small in-heap budget, and only the first few pages that
+ * look like they carry the thesis or target are kept. Extraction runs on a
+ * bounded pool, and results are stored by content hash.
+ */
+@Service
+@Slf4j
+public class PdfExtractionService {
+
+    private static final int CONNECT_TIMEOUT_MS = 15_000;
+    private static final int READ_TIMEOUT_MS = 30_000;
+
+    // Pages worth sending to the LLM: rating, target, thesis, valuation, risks
+    private static final Pattern THESIS_PATTERN = Pattern.compile(
+            "(?i)(target price|price target|\\bTP\\b|rating|recommend|valuation|thesis|rationale|upside|downside"
+                    + "|key risks|\\bBUY\\b|\\bSELL\\b|\\bHOLD\\b|accumulate|outlook)");
+
+    // The first pages of a research note carry the summary, so always keep them
+    private static final int ALWAYS_KEPT_PAGES = 2;
+
+    @Autowired
+    private PdfTextRepository pdfTextRepository;
+
+    @Value("${pdf.extraction.threads:0}")
+    private int threads;
+
+    @Value("${pdf.extraction.max-bytes:26214400}")
+    private long maxBytes;
+
+    @Value("${pdf.extraction.max-pages:8}")
+    private int maxPages;
+
+    @Value("${pdf.extraction.max-chars:50000}")
+    private int maxChars;
+
+    // In-heap scratch budget per document; anything above spills to temp files
+    @Value("${pdf.extraction.main-memory-bytes:4194304}")
+    private long mainMemoryBytes;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = Executors.newFixedThreadPool(poolSize);
+        log.info("PDF extraction pool started with {} threads", poolSize);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param pdfUrl Report PDF link
+     * @param token  Cancels the download or a queued extraction
+     * @return Extracted text, or null if the PDF could not be read
+     */
+    public String extractText(String pdfUrl, CancellationToken token) {
+        // Re-summarizing a report we already parsed skips the download entirely
+        PdfText known = pdfTextRepository.findFirstBySourceUrl(pdfUrl).orElse(null);
+        if (known != null) {
+            log.info("Using stored PDF text for {}", pdfUrl);
+            return known.getText();
+        }
+
+        Future<String> future = executor.submit(() -> downloadAndExtract(pdfUrl, token));
+        Runnable unregister = token.onCancel(() -> future.cancel(true));
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("PDF extraction interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CancellationException) {
+                throw (CancellationException) e.getCause();
+            }
+            log.error("Failed to extract text from PDF: {}", pdfUrl, e.getCause());
+            return null;
+        } finally {
+            unregister.run();
+        }
+    }
+
+    private String downloadAndExtract(String pdfUrl, CancellationToken token) throws Exception {
+        if (!pdfUrl.toLowerCase().endsWith(".pdf")) {
+            // Moneycontrol usually gives direct PDF links; try anyway
+            log.warn("Link does not look like a PDF: {}", pdfUrl);
+        }
+
+        Path tempFile = Files.createTempFile("broker-report-", ".pdf");
+        try {
+            String contentHash = download(pdfUrl, tempFile, token);
+
+            // The same report is often published under several links
+            PdfText sameContent = pdfTextRepository.findById(contentHash).orElse(null);
+            if (sameContent != null) {
+                log.info("PDF at {} matches stored content {}", pdfUrl, contentHash);
+                return sameContent.getText();
+            }
+
+            String text = extract(tempFile, token);
+            if (text != null && !text.trim().isEmpty()) {
+                PdfText pdfText = new PdfText();
+                pdfText.setContentHash(contentHash);
+                pdfText.setSourceUrl(pdfUrl);
+                pdfText.setText(text);
+                pdfText.setExtractedAt(LocalDateTime.now());
+                pdfTextRepository.save(pdfText);
+            }
+            return text;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Stream the PDF to disk while hashing it, failing once it exceeds the byte cap.
+     *
+     * @return SHA-256 of the PDF bytes
+     */
+    private String download(String pdfUrl, Path target, CancellationToken token) throws Exception {
+        URLConnection connection = new URL(pdfUrl).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        if (connection.getContentLengthLong() > maxBytes) {
+            throw new IOException("PDF is " + connection.getContentLengthLong() + " bytes, limit is " + maxBytes);
+        }
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        InputStream raw = connection.getInputStream();
+        // Closing the stream aborts a download that is still in flight
+        Runnable unregister = token.onCancel(() -> {
+            try {
+                raw.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        });
+        try (InputStream in = new DigestInputStream(raw, digest);
+                OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                token.throwIfCancelled();
+                total += read;
+                if (total > maxBytes) {
+                    throw new IOException("PDF exceeds limit of " + maxBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            if (token.isCancelled()) {
+                throw new CancellationException("PDF download aborted");
+            }
+            throw e;
+        } finally {
+            unregister.run();
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String extract(Path pdfFile, CancellationToken token) throws IOException {
+        try (PDDocument document = PDDocument.load(pdfFile.toFile(),
+                MemoryUsageSetting.setupMixed(mainMemoryBytes))) {
+            int lastPage = Math.min(document.getNumberOfPages(), maxPages);
+            PDFTextStripper stripper = new PDFTextStripper();
+            StringBuilder text = new StringBuilder();
+            int keptPages = 0;
+
+            for (int page = 1; page <= lastPage && text.length() < maxChars; page++) {
+                token.throwIfCancelled();
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                String pageText = stripper.getText(document);
+                if (page <= ALWAYS_KEPT_PAGES || THESIS_PATTERN.matcher(pageText).find()) {
+                    text.append(pageText);
+                    keptPages++;
+                }
+            }
+
+            log.info("Extracted {} of {} pages ({} chars)", keptPages, document.getNumberOfPages(), text.length());
+            return text.length() > maxChars ? text.substring(0, maxChars) : text.toString();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.dto.Quote;
+import com.example.screen.data.fetcher.entity.MoneyControlSymbol;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Current prices from the Moneycontrol price feed, cached in memory.
+ * Quotes live for seconds while the NSE is open and until the next open (capped)
+ * when it is closed. Misses in a batch are fetched concurrently on a bounded
+ * pool, and concurrent requests for the same ticker share one fetch. Expired
+ * quotes are swept periodically and the cache holds at most
+ * {@code quotes.max-entries} tickers.
+ */
+@Service
+@Slf4j
+public class QuoteService {
+
+    private static final String PRICE_API = "https://priceapi.moneycontrol.com/pricefeed/nse/equitycash/%s";
+
+    private static final ZoneId MARKET_ZONE = ZoneId.of("Asia/Kolkata");
+    private static final LocalTime MARKET_OPEN = LocalTime.of(9, 15);
+    private static final LocalTime MARKET_CLOSE = LocalTime.of(15, 30);
+
+    private static final long BATCH_TIMEOUT_SECONDS = 30;
+
+    @Autowired
+    private MoneyControlSymbolService symbolService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${quotes.open-ttl-seconds:15}")
+    private long openTtlSeconds;
+
+    @Value("${quotes.closed-ttl-minutes:360}")
+    private long closedTtlMinutes;
+
+    @Value("${quotes.threads:8}")
+    private int threads;
+
+    @Value("${quotes.max-entries:2000}")
+    private int maxEntries;
+
+    private final Map<String, CachedQuote> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Quote>> inFlight = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    private record CachedQuote(Quote quote, long expiresAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return Current price, or 0 if unavailable
+     */
+    public double getPrice(String ticker) {
+        Quote quote = getQuotes(java.util.List.of(ticker)).get(ticker);
+        return quote != null && quote.getPrice() != null ? quote.getPrice() : 0;
+    }
+
+    /**
+     * @param tickers Tickers to price
+     * @return Quote per ticker, in request order
+     */
+    public Map<String, Quote> getQuotes(Collection<String> tickers) {
+        long now = System.currentTimeMillis();
+        Map<String, CompletableFuture<Quote>> pending = new LinkedHashMap<>();
+        for (String ticker : tickers) {
+            CachedQuote cached = cache.get(ticker);
+            if (cached != null && cached.expiresAt() > now) {
+                pending.put(ticker, CompletableFuture.completedFuture(cached.quote()));
+            } else {
+                pending.put(ticker, inFlight.computeIfAbsent(ticker, this::startFetch));
+            }
+        }
+
+        Map<String, Quote> result = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<Quote>> entry : pending.entrySet()) {
+            try {
+                result.put(entry.getKey(), entry.getValue().get(BATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Price fetch for {} did not complete: {}", entry.getKey(), e.getMessage());
+                result.put(entry.getKey(), new Quote(entry.getKey(), null, now));
+            }
+        }
+        return result;
+    }
+
+    private CompletableFuture<Quote> startFetch(String ticker) {
+        CompletableFuture<Quote> future = CompletableFuture.supplyAsync(() -> fetch(ticker), executor);
+        // Async so the removal never runs inside inFlight.computeIfAbsent
+        future.whenCompleteAsync((quote, e) -> {
+            if (quote != null && quote.getPrice() != null) {
+                cache.put(ticker, new CachedQuote(quote, expiresAt(quote.getFetchedAt())));
+                if (cache.size() > maxEntries) {
+                    evict();
+                }
+            }
+            inFlight.remove(ticker, future);
+        }, executor);
+        return future;
+    }
+
+    @Scheduled(fixedDelayString = "${quotes.sweep-interval-ms:600000}")
+    void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> cached.expiresAt() <= now);
+    }
+
+    // Over the cap: drop expired quotes, then those closest to expiry
+    private synchronized void evict() {
+        evictExpired();
+        int excess = cache.size() - maxEntries;
+        if (excess > 0) {
+            cache.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().expiresAt()))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(cache::remove);
+        }
+    }
+
+    private Quote fetch(String ticker) {
+        long now = System.currentTimeMillis();
+        try {
+            MoneyControlSymbol symbol = symbolService.resolve(ticker);
+            if (symbol == null || symbol.getScId() == null) {
+                return new Quote(ticker, null, now);
+            }
+            String url = String.format(PRICE_API, symbol.getScId());
+            String json = Jsoup.connect(url).ignoreContentType(true).execute().body();
+            JsonNode node = objectMapper.readTree(json);
+            if (node.has("data") && node.get("data").has("pricecurrent")) {
+                return new Quote(ticker, node.get("data").get("pricecurrent").asDouble(), now);
+            }
+        } catch (Exception e) {
+            log.error("Error fetching current price for {}", ticker, e);
+        }
+        return new Quote(ticker, null, now);
+    }
+
+    private long expiresAt(long fetchedAt) {
+        ZonedDateTime fetched = ZonedDateTime.ofInstant(java.time.Instant.ofEpochMilli(fetchedAt), MARKET_ZONE);
+        if (isMarketOpen(fetched)) {
+            return fetchedAt + TimeUnit.SECONDS.toMillis(openTtlSeconds);
+        }
+        // Closed-market prices do not move until the next session opens
+        long closedExpiry = fetchedAt + TimeUnit.MINUTES.toMillis(closedTtlMinutes);
+        return Math.min(closedExpiry, nextOpen(fetched).toInstant().toEpochMilli());
+    }
+
+    private boolean isMarketOpen(ZonedDateTime time) {
+        DayOfWeek day = time.getDayOfWeek();
+        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        LocalTime t = time.toLocalTime();
+        return !t.isBefore(MARKET_OPEN) && !t.isAfter(MARKET_CLOSE);
+    }
+
+    private ZonedDateTime nextOpen(ZonedDateTime from) {
+        ZonedDateTime candidate = from.with(MARKET_OPEN);
+        if (!candidate.isAfter(from)) {
+            candidate = candidate.plusDays(1);
+        }
+        while (candidate.getDayOfWeek() == DayOfWeek.SATURDAY || candidate.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            candidate = candidate.plusDays(1);
+        }
+        return candidate;
+    }
+}
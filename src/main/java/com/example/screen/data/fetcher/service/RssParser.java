@@ -0,0 +1,86 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.dto.NewsItem;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for RSS 2.0 feeds. Reads items in document order and stops
+ * after the requested number, so the rest of the feed is never parsed (and the
+ * caller can drop the connection instead of downloading it).
+ */
+public final class RssParser {
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private RssParser() {
+    }
+
+    /**
+     * @param in    Feed body; not closed
+     * @param limit Maximum number of items to read
+     * @return Items in feed order, at most {@code limit}
+     */
+    public static List<NewsItem> readItems(InputStream in, int limit) throws XMLStreamException {
+        List<NewsItem> items = new ArrayList<>(limit);
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+        try {
+            while (items.size() < limit && reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "item".equals(reader.getLocalName())) {
+                    items.add(readItem(reader));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return items;
+    }
+
+    // Positioned on <item>; returns positioned on </item>
+    private static NewsItem readItem(XMLStreamReader reader) throws XMLStreamException {
+        String title = null;
+        String link = null;
+        String pubDate = null;
+        String source = null;
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                // Only direct children of <item> carry the fields we want
+                if (depth == 1) {
+                    switch (reader.getLocalName()) {
+                        case "title" -> title = reader.getElementText();
+                        case "link" -> link = reader.getElementText();
+                        case "pubDate" -> pubDate = reader.getElementText();
+                        case "source" -> source = reader.getElementText();
+                        default -> depth++;
+                    }
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        return new NewsItem(trim(title), trim(link), trim(pubDate), trim(source));
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : "";
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Feeds come from outside; never resolve DTDs or external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
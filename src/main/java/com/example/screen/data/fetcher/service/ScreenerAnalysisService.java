@@ -217,48 +217,18 @@ public class ScreenerAnalysisService {
     }
 
     @Autowired
-    private MoneyControlService moneyControlService;
+    private CorporateActionService corporateActionService;
 
     /**
-     * Get corporate actions with caching support
+     * Get corporate actions from the normalized store, refreshing it from
+     * Moneycontrol when it is older than a week
      * 
      * @param ticker  Stock ticker
-     * @param refresh If true, bypass cache and fetch fresh data
+     * @param refresh If true, fetch fresh data even if the store is recent
      * @return Corporate actions data
      */
     public Map<String, Object> getCorporateActions(String ticker, boolean refresh) {
-        String cacheKey = "CORPORATE_ACTIONS_V2_" + ticker;
-        long oneWeekInMillis = 7L * 24 * 60 * 60 * 1000; // 1 week
-
-        // If refresh is requested, clear the cache
-        if (refresh) {
-            cacheService.remove(cacheKey);
-        }
-
-        // Check if cache exists and is not older than 1 week
-        if (!refresh && !cacheService.isOlderThan(cacheKey, oneWeekInMillis)) {
-            Map<String, Object> cachedResult = cacheService.get(cacheKey,
-                    new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
-                    });
-            if (cachedResult != null) {
-                log.info("Returning cached corporate actions for {}", ticker);
-                java.time.LocalDateTime lastUpdated = cacheService.getLastUpdated(cacheKey);
-                if (lastUpdated != null) {
-                    cachedResult.put("fetchedAt", lastUpdated.toString());
-                }
-                return cachedResult;
-            }
-        }
-
-        // Fetch fresh data
-        log.info("Fetching corporate actions for {} from Moneycontrol", ticker);
-        Map<String, Object> result = moneyControlService.getCorporateActions(ticker);
-
-        // Cache the result
-        cacheService.put(cacheKey, result, oneWeekInMillis);
-        result.put("fetchedAt", java.time.LocalDateTime.now().toString());
-
-        return result;
+        return corporateActionService.getCorporateActions(ticker, refresh);
     }
 
     /**
@@ -530,6 +500,9 @@ public class ScreenerAnalysisService {
     @Autowired
     private CacheService cacheService;
 
+    @Autowired
+    private NewsSearchIndexService newsSearchIndexService;
+
     public Map<String, Object> getGeoAnalysis(String ticker, boolean refresh) {
         String cacheKey = "GEO_ANALYSIS_" + ticker;
         if (refresh) {
@@ -592,31 +565,33 @@ public class ScreenerAnalysisService {
                 regionsToFetch.add("Global");
             }
 
-            Map<String, List<Map<String, String>>> countryNews = new HashMap<>();
-            for (String region : regionsToFetch) {
+            // Fetch all regions at once, in a fixed order so the result does not depend on timing
+            Map<String, String> queryToRegion = new LinkedHashMap<>();
+            for (String region : new TreeSet<>(regionsToFetch)) {
                 if (region.equalsIgnoreCase("Rest of World") || region.equalsIgnoreCase("Others"))
                     continue;
-
-                String query = ticker + " " + region;
-                List<Map<String, String>> news = newsService.fetchNews(query, refresh);
-
-                // Sort news by date
-                news.sort((n1, n2) -> {
-                    String d1 = n1.get("pubDate");
-                    String d2 = n2.get("pubDate");
-                    if (d1 == null)
-                        return 1;
-                    if (d2 == null)
-                        return -1;
-                    return parseDate(d2).compareTo(parseDate(d1)); // Descending
-                });
-
-                countryNews.put(region, news);
+                queryToRegion.put(ticker + " " + region, region);
+            }
+            Set<String> incomplete = new HashSet<>();
+            Map<String, List<Map<String, String>>> newsByQuery = newsService.fetchNews(queryToRegion.keySet(),
+                    refresh, incomplete);
+
+            Map<String, List<Map<String, String>>> countryNews = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : queryToRegion.entrySet()) {
+                String region = entry.getValue();
+                // NewsService returns each query's news newest first already
+                countryNews.put(region, newsByQuery.getOrDefault(entry.getKey(), new ArrayList<>()));
             }
             result.put("news", countryNews);
+            newsSearchIndexService.setGeoRegions(ticker, countryNews.keySet());
 
-            // Cache the result
-            cacheService.put(cacheKey, result, 2L * 24 * 60 * 60 * 1000); // 2 days
+            // Cache the result; briefly if some regions are missing, so the next request fetches them
+            if (incomplete.isEmpty()) {
+                cacheService.put(cacheKey, result, 2L * 24 * 60 * 60 * 1000); // 2 days
+            } else {
+                result.put("partial", true);
+                cacheService.put(cacheKey, result, NewsService.PARTIAL_CACHE_EXPIRY_MS);
+            }
             result.put("fetchedAt", java.time.LocalDateTime.now().toString());
 
         } catch (Exception e) {
@@ -626,15 +601,6 @@ public class ScreenerAnalysisService {
         return result;
     }
 
-    private java.time.ZonedDateTime parseDate(String dateStr) {
-        try {
-            return java.time.ZonedDateTime.parse(dateStr, java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME);
-        } catch (Exception e) {
-            // Fallback or return min date
-            return java.time.ZonedDateTime.now().minusYears(10);
-        }
-    }
-
     public Map<String, Object> getGeoAnalysis(String ticker) {
         return getGeoAnalysis(ticker, false);
     }
@@ -0,0 +1,57 @@
+package com.example.screen.data.fetcher.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Moves id sequences past the ids already in their table. broker_research
+ * used IDENTITY ids before it switched to broker_research_seq; ddl-auto
+ * creates the sequence at 1 in an existing database, so without this the first
+ * batched insert would reuse existing ids. Runs on every startup and does
+ * nothing once the sequence is ahead.
+ */
+@Service
+@Slf4j
+public class SequenceMigrationService {
+
+    private record SequencedTable(String table, String sequence, int allocationSize) {
+    }
+
+    private static final List<SequencedTable> TABLES = List.of(
+            new SequencedTable("broker_research", "broker_research_seq", 50));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Not used directly: makes Hibernate create or update the schema first
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void migrate() {
+        for (SequencedTable sequenced : TABLES) {
+            try {
+                Long maxId = jdbcTemplate.queryForObject("select max(id) from " + sequenced.table(), Long.class);
+                Long next = jdbcTemplate.queryForObject(
+                        "select base_value from information_schema.sequences where lower(sequence_name) = ?",
+                        Long.class, sequenced.sequence());
+                if (maxId == null || next == null || next > maxId) {
+                    continue;
+                }
+                // Clear of the whole block Hibernate's pooled optimizer may hand out below the value it reads
+                long restart = maxId + 1 + sequenced.allocationSize();
+                jdbcTemplate.execute("alter sequence " + sequenced.sequence() + " restart with " + restart);
+                log.info("Restarted {} at {} (max id in {} is {})", sequenced.sequence(), restart,
+                        sequenced.table(), maxId);
+            } catch (Exception e) {
+                log.error("Could not migrate sequence {}", sequenced.sequence(), e);
+            }
+        }
+    }
+}
@@ -313,14 +313,20 @@ function showSection(sectionId) {
 let brokerResearchResults = {};
 
 // State for market actions
-let marketActionsData = {};
+let marketActionItems = [];
+let marketActionNextCursor = null;
+let marketActionSearchTimer = null;
 let currentMarketActionCategory = 'dividends';
 let marketActionSearchQuery = '';
 // Default sort: Ex-Date (or similar) DESC
 let marketActionSort = { column: 'exDate', direction: 'desc' };
 let currentMarketActionYear = new Date().getFullYear();
 
-async function fetchMarketActions(year = null) {
+// Columns the query endpoint sorts by; others are sorted within the loaded rows
+const SERVER_SORT_COLUMNS = ['exDate', 'splitDate', 'recordDate', 'announcementDate', 'company'];
+const MARKET_ACTION_PAGE_SIZE = 100;
+
+async function fetchMarketActions(year = null, append = false) {
     const container = document.getElementById('marketActionsTab');
 
     // Ensure layout exists
@@ -329,30 +335,38 @@ async function fetchMarketActions(year = null) {
     }
 
     const contentDiv = document.getElementById('marketActionsContent');
-    // Show loading in the content area
-    contentDiv.innerHTML = `
-        <div class="loading" style="display: block;">
-            <div class="loader"></div>
-            <div>Fetching market actions...</div>
-        </div>
-    `;
+    if (!append) {
+        // Show loading in the content area
+        contentDiv.innerHTML = `
+            <div class="loading" style="display: block;">
+                <div class="loader"></div>
+                <div>Fetching market actions...</div>
+            </div>
+        `;
+    }
 
     try {
-        let url = '/api/v1/data-fetcher/market-actions';
         const yearToFetch = year || currentMarketActionYear;
-        // Use yearToFetch for the API call
-        if (yearToFetch) {
-            url += `?year=${yearToFetch}`;
-        }
+        const serverSort = SERVER_SORT_COLUMNS.includes(marketActionSort.column) ? marketActionSort.column : 'exDate';
+        const params = new URLSearchParams({
+            type: currentMarketActionCategory,
+            sort: serverSort,
+            direction: marketActionSort.direction,
+            limit: MARKET_ACTION_PAGE_SIZE
+        });
+        if (yearToFetch) params.set('year', yearToFetch);
+        if (marketActionSearchQuery) params.set('company', marketActionSearchQuery);
+        if (append && marketActionNextCursor) params.set('cursor', marketActionNextCursor);
 
-        const response = await fetch(url);
+        const response = await fetch(`/api/v1/data-fetcher/market-actions/query?${params}`);
         if (!response.ok) throw new Error('Failed to fetch');
-        const data = await response.json();
+        const page = await response.json();
 
-        marketActionsData = data;
+        marketActionItems = append ? marketActionItems.concat(page.items) : page.items;
+        marketActionNextCursor = page.nextCursor;
         if (year) currentMarketActionYear = parseInt(year);
 
-        filterAndRenderMarketActionTable();
+        renderLoadedMarketActions();
     } catch (e) {
         contentDiv.innerHTML = `<div class="error">Error: ${e.message}</div>`;
     }
@@ -627,7 +641,9 @@ function setupMarketActionsLayout() {
 
     searchInput.addEventListener('input', (e) => {
         marketActionSearchQuery = e.target.value;
-        filterAndRenderMarketActionTable();
+        // The search runs on the server, so wait for a pause in typing
+        clearTimeout(marketActionSearchTimer);
+        marketActionSearchTimer = setTimeout(() => fetchMarketActions(), 300);
     });
     rightControls.appendChild(searchInput);
 
@@ -646,18 +662,19 @@ function setupMarketActionsLayout() {
 }
 
 function filterAndRenderMarketActionTable() {
-    let items = marketActionsData[currentMarketActionCategory] || [];
-
-    // Filter
-    if (marketActionSearchQuery) {
-        const q = marketActionSearchQuery.toLowerCase();
-        items = items.filter(item => {
-            return item.company && item.company.toLowerCase().includes(q);
-        });
+    // Category, search and date/company sorts are answered by the server a page at a time
+    if (SERVER_SORT_COLUMNS.includes(marketActionSort.column)) {
+        fetchMarketActions();
+    } else {
+        renderLoadedMarketActions();
     }
+}
 
-    // Sort
-    if (marketActionSort.column) {
+function renderLoadedMarketActions() {
+    let items = [...marketActionItems];
+
+    // Sort columns the server does not index within the loaded rows
+    if (marketActionSort.column && !SERVER_SORT_COLUMNS.includes(marketActionSort.column)) {
         items.sort((a, b) => {
             let valA = a[marketActionSort.column];
             let valB = b[marketActionSort.column];
@@ -692,6 +709,19 @@ function filterAndRenderMarketActionTable() {
     }
 
     renderMarketActionTable(items, currentMarketActionCategory);
+
+    if (marketActionNextCursor) {
+        const loadMoreBtn = document.createElement('button');
+        loadMoreBtn.className = 'sub-tab-btn';
+        loadMoreBtn.textContent = 'Load more';
+        loadMoreBtn.style.marginTop = '1rem';
+        loadMoreBtn.onclick = () => {
+            loadMoreBtn.disabled = true;
+            loadMoreBtn.textContent = 'Loading...';
+            fetchMarketActions(null, true);
+        };
+        document.getElementById('marketActionsContent').appendChild(loadMoreBtn);
+    }
 }
 
 function renderMarketActionTable(items, category) {
@@ -2661,14 +2691,48 @@ function getRecoClass(reco) {
 }
 
 // Modal Logic and AI Summary
+// Summary job currently shown in the modal; cancelled when the modal closes
+let activeSummaryJobId = null;
+
 function closeModal() {
     document.getElementById('infoModal').style.display = 'none';
+    cancelActiveSummaryJob();
+}
+
+function cancelActiveSummaryJob() {
+    if (activeSummaryJobId) {
+        fetch(`/api/v1/data-fetcher/broker-research/summary/${activeSummaryJobId}`, { method: 'DELETE' })
+            .catch(() => { });
+        activeSummaryJobId = null;
+    }
+}
+
+// Poll a background summary job until it finishes, or until the user moves on
+async function waitForSummaryJob(job) {
+    activeSummaryJobId = job.jobId;
+    while (job.status === 'PENDING' || job.status === 'RUNNING') {
+        await new Promise(resolve => setTimeout(resolve, 2000));
+        if (activeSummaryJobId !== job.jobId) {
+            return null;
+        }
+        const response = await fetch(`/api/v1/data-fetcher/broker-research/summary/${job.jobId}`);
+        if (!response.ok) {
+            throw new Error('Summary job not found');
+        }
+        job = await response.json();
+    }
+    activeSummaryJobId = null;
+    if (job.status === 'FAILED') {
+        throw new Error(job.error || 'Failed to generate summary');
+    }
+    return job.status === 'DONE' ? job : null;
 }
 
 window.onclick = function (event) {
     const modal = document.getElementById('infoModal');
     if (event.target == modal) {
         modal.style.display = "none";
+        cancelActiveSummaryJob();
     }
 }
 
@@ -2677,6 +2741,7 @@ async function fetchBrokerReportSummary(ticker, link, broker) {
     const title = document.getElementById('modalTitle');
     const body = document.getElementById('modalBody');
 
+    cancelActiveSummaryJob();
     modal.style.display = 'block';
     title.textContent = `AI Summary for ${ticker} - ${broker || 'Unknown Broker'}`;
     body.innerHTML = `<div class="loading-local"><div class="loader"></div><div>Analyzing report with AI... (Takes ~10-20s)</div></div>`;
@@ -2692,7 +2757,10 @@ async function fetchBrokerReportSummary(ticker, link, broker) {
             const errorText = await response.text();
             throw new Error(errorText || 'Failed to generate summary');
         }
-        const data = await response.json();
+        const data = await waitForSummaryJob(await response.json());
+        if (!data) {
+            return; // Cancelled or superseded by another report
+        }
 
         // Format bullet points
         // Format formatting: Convert newlines to paragraphs or lists
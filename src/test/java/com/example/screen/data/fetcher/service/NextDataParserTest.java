@@ -0,0 +1,125 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.dto.NextDataAction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NextDataParserTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void readsRequestedTabAndIgnoresDecoyOutsideDataPath() throws IOException {
+        List<NextDataAction> dividends = NextDataParser.readTabsData(mapper, fixture("next-data-company-facts.json"),
+                "dividends");
+
+        assertEquals(3, dividends.size());
+        NextDataAction first = dividends.get(0);
+        assertEquals("17 Apr, 2025", first.dispAnnounceDate());
+        assertEquals("30 May, 2025", first.effectiveDate());
+        assertEquals("Final", first.dividendType());
+        assertEquals("Rs.22.00 per share(440%)Final Dividend", first.remarks());
+    }
+
+    @Test
+    void bindsNumericValuesAsText() throws IOException {
+        NextDataAction first = NextDataParser
+                .readTabsData(mapper, fixture("next-data-company-facts.json"), "dividends").get(0);
+
+        assertEquals("22.0", first.dividendAmount());
+        assertEquals("440", first.dividendPer());
+    }
+
+    @Test
+    void leavesMissingFieldsNull() throws IOException {
+        List<NextDataAction> dividends = NextDataParser.readTabsData(mapper, fixture("next-data-company-facts.json"),
+                "dividends");
+
+        NextDataAction interim = dividends.get(1);
+        assertNull(interim.dispAnnounceDate());
+        assertEquals("17 Oct, 2024", interim.announcementDate());
+        assertNull(interim.dividendAmount());
+
+        NextDataAction bare = dividends.get(2);
+        assertEquals("2 Jun, 2023", bare.effectiveDate());
+        assertNull(bare.dividendType());
+        assertNull(bare.remarks());
+    }
+
+    @Test
+    void readsOtherTabs() throws IOException {
+        List<NextDataAction> bonus = NextDataParser.readTabsData(mapper, fixture("next-data-company-facts.json"),
+                "bonus");
+
+        assertEquals(1, bonus.size());
+        assertEquals("25 Jun, 2018", bonus.get(0).exbonusDate());
+        assertEquals("1:1", bonus.get(0).bonusRatio());
+    }
+
+    @Test
+    void emptyTabGivesEmptyList() throws IOException {
+        List<NextDataAction> splits = NextDataParser.readTabsData(mapper, fixture("next-data-company-facts.json"),
+                "splits");
+
+        assertTrue(splits.isEmpty());
+    }
+
+    @Test
+    void missingTabOrPathGivesNull() throws IOException {
+        assertNull(NextDataParser.readTabsData(mapper, fixture("next-data-company-facts.json"), "rights"));
+        assertNull(NextDataParser.readTabsData(mapper, "{\"props\":{\"pageProps\":{}}}", "dividends"));
+        assertNull(NextDataParser.readTabsData(mapper, "{\"props\":{\"pageProps\":{\"data\":null}}}", "dividends"));
+        assertNull(NextDataParser.readTabsData(mapper, "[]", "dividends"));
+    }
+
+    @Test
+    void tabThatIsNotAnArrayGivesNull() throws IOException {
+        String json = "{\"props\":{\"pageProps\":{\"data\":{\"tabsData\":{\"dividends\":{\"rows\":[]}}}}}}";
+
+        assertNull(NextDataParser.readTabsData(mapper, json, "dividends"));
+    }
+
+    @Test
+    void truncatedJsonThrows() throws IOException {
+        String json = fixture("next-data-truncated.json");
+
+        assertThrows(IOException.class, () -> NextDataParser.readTabsData(mapper, json, "dividends"));
+    }
+
+    @Test
+    void malformedJsonThrows() {
+        assertThrows(IOException.class,
+                () -> NextDataParser.readTabsData(mapper, "{\"props\": {\"pageProps\" [}", "dividends"));
+    }
+
+    @Test
+    void parsesNextDataDates() {
+        assertEquals(LocalDate.of(2025, 4, 25), MoneyControlService.parseNextDataDate("25 Apr, 2025"));
+        assertEquals(LocalDate.of(2023, 6, 2), MoneyControlService.parseNextDataDate("2 Jun, 2023"));
+    }
+
+    @Test
+    void rejectsOtherDateFormats() {
+        assertNull(MoneyControlService.parseNextDataDate("25-04-2025"));
+        assertNull(MoneyControlService.parseNextDataDate("25 Apr 2025"));
+        assertNull(MoneyControlService.parseNextDataDate(""));
+        assertNull(MoneyControlService.parseNextDataDate(null));
+    }
+
+    private static String fixture(String name) throws IOException {
+        try (InputStream in = NextDataParserTest.class.getResourceAsStream("/fixtures/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.screen.data.fetcher.service;
+
+import com.example.screen.data.fetcher.dto.NewsItem;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RssParserTest {
+
+    @Test
+    void readsItemsInFeedOrder() throws Exception {
+        List<NewsItem> items = read("rss-feed.xml", 10);
+
+        assertEquals(4, items.size());
+        NewsItem third = items.get(2);
+        assertEquals("TCS shares slip after guidance", third.title());
+        assertEquals("https://news.google.com/rss/articles/CBMiAA3?oc=5", third.link());
+        assertEquals("Wed, 08 Oct 2025 06:30:00 GMT", third.pubDate());
+        assertEquals("The Economic Times", third.source());
+    }
+
+    @Test
+    void stopsAtLimit() throws Exception {
+        List<NewsItem> items = read("rss-feed.xml", 2);
+
+        assertEquals(2, items.size());
+        assertEquals("TCS wins order from European insurer", items.get(1).title());
+    }
+
+    @Test
+    void zeroLimitReadsNothing() throws Exception {
+        assertTrue(read("rss-feed.xml", 0).isEmpty());
+    }
+
+    @Test
+    void readsCdataTitleAsText() throws Exception {
+        NewsItem first = read("rss-feed.xml", 1).get(0);
+
+        assertEquals("TCS Q2 results: Net profit rises 5% & beats <estimates>", first.title());
+        assertEquals("Mint", first.source());
+    }
+
+    @Test
+    void missingSourceAndPubDateAreEmpty() throws Exception {
+        NewsItem second = read("rss-feed.xml", 2).get(1);
+
+        assertEquals("", second.pubDate());
+        assertEquals("", second.source());
+    }
+
+    @Test
+    void ignoresNestedElementsWithFieldNames() throws Exception {
+        // <media:title> sits inside <media:content>, not directly under <item>
+        NewsItem second = read("rss-feed.xml", 2).get(1);
+
+        assertEquals("TCS wins order from European insurer", second.title());
+    }
+
+    @Test
+    void truncatedFeedReadsItemsBeforeTheBreak() throws Exception {
+        List<NewsItem> items = read("rss-truncated.xml", 3);
+
+        assertEquals(3, items.size());
+        assertEquals("TCS shares slip after guidance", items.get(2).title());
+    }
+
+    @Test
+    void truncatedFeedThrowsWhenTheBreakIsReached() {
+        assertThrows(XMLStreamException.class, () -> read("rss-truncated.xml", 10));
+    }
+
+    @Test
+    void feedWithoutItemsGivesEmptyList() throws Exception {
+        String feed = "<rss version=\"2.0\"><channel><title>Empty</title></channel></rss>";
+
+        List<NewsItem> items = RssParser.readItems(
+                new ByteArrayInputStream(feed.getBytes(StandardCharsets.UTF_8)), 5);
+
+        assertTrue(items.isEmpty());
+    }
+
+    private static List<NewsItem> read(String fixture, int limit) throws IOException, XMLStreamException {
+        try (InputStream in = RssParserTest.class.getResourceAsStream("/fixtures/" + fixture)) {
+            return RssParser.readItems(in, limit);
+        }
+    }
+}